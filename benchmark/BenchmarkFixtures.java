@@ -0,0 +1,96 @@
+package cs3500.freecell.benchmark;
+
+import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.Move;
+import cs3500.freecell.model.hw02.Card;
+import cs3500.freecell.model.hw02.DealGenerator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the fixed inputs the benchmarks run over, so that every run measures the same games.
+ * Deals are the classic numbered deals, and scripts of moves are chosen by a random generator
+ * seeded with the deal number.
+ */
+final class BenchmarkFixtures {
+
+  static final int NUM_CASCADES = 8;
+  static final int NUM_OPEN = 4;
+
+  private BenchmarkFixtures() {
+  }
+
+  // returns the deck of the classic deal with the given number
+  static List<Card> deck(int dealNumber) {
+    return DealGenerator.classicDeal(dealNumber);
+  }
+
+  /**
+   * Starts the given deal on the given model and plays legal moves chosen by a seeded random
+   * generator, then starts the deal again so the model is ready to replay them. A move that would
+   * leave no legal moves is taken back and another is tried, so scripts rarely end early.
+   *
+   * @param model      the model to play on
+   * @param dealNumber the number of the classic deal to play
+   * @param length     the most moves to play
+   * @param builds     true to choose a move of several cards whenever one is legal
+   * @return the packed moves played, fewer than length if every move led to a dead end
+   */
+  static int[] script(FreecellModel<Card> model, int dealNumber, int length, boolean builds) {
+    List<Card> deck = deck(dealNumber);
+    model.startGame(deck, NUM_CASCADES, NUM_OPEN, false);
+    int[] moves = new int[model.maxLegalMoves()];
+    int[] ahead = new int[moves.length];
+    int[] script = new int[length];
+    SplittableRandom random = new SplittableRandom(dealNumber);
+    int played = 0;
+    while (played < length && !model.isGameOver()) {
+      int count = model.legalMoves(moves);
+      if (count == 0) {
+        break;
+      }
+      int first = random.nextInt(count);
+      if (builds) {
+        for (int i = 0; i < count; i++) {
+          if (Move.count(moves[i]) > 1) {
+            first = i;
+            break;
+          }
+        }
+      }
+      int move = -1;
+      for (int i = 0; i < count && move == -1; i++) {
+        int candidate = moves[(first + i) % count];
+        play(model, candidate);
+        if (model.legalMoves(ahead) > 0 || model.isGameOver()) {
+          move = candidate;
+        } else {
+          model.undo();
+        }
+      }
+      if (move == -1) {
+        move = moves[first];
+        play(model, move);
+      }
+      script[played++] = move;
+    }
+    model.startGame(deck, NUM_CASCADES, NUM_OPEN, false);
+    return Arrays.copyOf(script, played);
+  }
+
+  // makes the given packed move on the model without unpacking it into an object
+  static void play(FreecellModel<Card> model, int move) {
+    model.move(Move.source(move), Move.pileNumber(move), Move.cardIndex(move),
+        Move.destination(move), Move.destPileNumber(move));
+  }
+
+  // returns the text a player would type into the controller to make the given moves and quit
+  static String commands(int[] script) {
+    StringBuilder commands = new StringBuilder();
+    for (int move : script) {
+      commands.append(Move.unpack(move)).append('\n');
+    }
+    return commands.append("q\n").toString();
+  }
+}
@@ -0,0 +1,32 @@
+package cs3500.freecell.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every benchmark with the allocation profiler on, so that each result reports the bytes
+ * allocated per operation next to its time. The benchmarks need the JMH core library and its
+ * annotation processor on the class path, which the rest of the project does not.
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {
+  }
+
+  /**
+   * Runs the benchmarks whose names match the given pattern, or all of them.
+   *
+   * @param args an optional regular expression to choose benchmarks by name
+   * @throws RunnerException if a benchmark fails
+   */
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(args.length > 0 ? args[0] : "cs3500\\.freecell\\.benchmark\\..*")
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+}
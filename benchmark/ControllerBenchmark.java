@@ -0,0 +1,73 @@
+package cs3500.freecell.benchmark;
+
+import cs3500.freecell.controller.SimpleFreecellController;
+import cs3500.freecell.model.hw02.Card;
+import cs3500.freecell.model.hw02.SimpleFreecellModel;
+import cs3500.freecell.model.hw04.MultiMoveModel;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures replaying a scripted game through the controller from end to end: parsing each
+ * command, making the move and rendering the board after it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ControllerBenchmark {
+
+  @Param({"1", "617", "11982"})
+  public int dealNumber;
+
+  private List<Card> deck;
+  private String singleCommands;
+  private String multiCommands;
+  private StringBuilder out;
+
+  // writes the commands of the single and multi card scripts of the deal
+  @Setup
+  public void setUp() {
+    this.deck = BenchmarkFixtures.deck(this.dealNumber);
+    this.singleCommands = BenchmarkFixtures.commands(BenchmarkFixtures.script(
+        new SimpleFreecellModel(), this.dealNumber, ModelBenchmark.SCRIPT_LENGTH, false));
+    this.multiCommands = BenchmarkFixtures.commands(BenchmarkFixtures.script(
+        new MultiMoveModel(), this.dealNumber, ModelBenchmark.SCRIPT_LENGTH, true));
+    this.out = new StringBuilder();
+  }
+
+  // replays the single card script through the controller
+  @Benchmark
+  public StringBuilder replaySingleCardGame() throws IOException {
+    return this.replay(new SimpleFreecellModel(), this.singleCommands);
+  }
+
+  // replays the multi card script through the controller
+  @Benchmark
+  public StringBuilder replayMultiCardGame() throws IOException {
+    return this.replay(new MultiMoveModel(), this.multiCommands);
+  }
+
+  // plays the deal on the given model with the given commands as input
+  private StringBuilder replay(SimpleFreecellModel model, String commands) throws IOException {
+    this.out.setLength(0);
+    new SimpleFreecellController<Card>(model, new StringReader(commands), this.out)
+        .playGame(this.deck, BenchmarkFixtures.NUM_CASCADES, BenchmarkFixtures.NUM_OPEN, false);
+    return this.out;
+  }
+}
@@ -0,0 +1,149 @@
+package cs3500.freecell.benchmark;
+
+import cs3500.freecell.model.hw02.Card;
+import cs3500.freecell.model.hw02.SimpleFreecellModel;
+import cs3500.freecell.model.hw04.MultiMoveModel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the hot paths of the models: starting games, making single and multi card moves,
+ * forking a game and checking whether the game is over. The move benchmarks replay a fixed
+ * script of {@link #SCRIPT_LENGTH} legal moves on a game dealt before each invocation, so they
+ * time only the moves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ModelBenchmark {
+
+  static final int SCRIPT_LENGTH = 200;
+
+  @Param({"1", "617", "11982"})
+  public int dealNumber;
+
+  private List<Card> deck;
+  private SimpleFreecellModel single;
+  private MultiMoveModel multi;
+
+  // builds the deck and deals it on the multi move model
+  @Setup
+  public void setUp() {
+    this.deck = BenchmarkFixtures.deck(this.dealNumber);
+    this.single = new SimpleFreecellModel(this.dealNumber);
+    this.multi = new MultiMoveModel(this.dealNumber);
+    this.multi.startGame(this.deck, BenchmarkFixtures.NUM_CASCADES, BenchmarkFixtures.NUM_OPEN,
+        false);
+  }
+
+  // starts the deal without shuffling
+  @Benchmark
+  public SimpleFreecellModel startGame() {
+    this.single.startGame(this.deck, BenchmarkFixtures.NUM_CASCADES, BenchmarkFixtures.NUM_OPEN,
+        false);
+    return this.single;
+  }
+
+  // starts the deal with shuffling
+  @Benchmark
+  public SimpleFreecellModel startGameShuffled() {
+    this.single.startGame(this.deck, BenchmarkFixtures.NUM_CASCADES, BenchmarkFixtures.NUM_OPEN,
+        true);
+    return this.single;
+  }
+
+  // replays the single card script, counting each move as one operation
+  @Benchmark
+  @OperationsPerInvocation(SCRIPT_LENGTH)
+  public SimpleFreecellModel singleCardMoves(Replay replay) {
+    return replay(replay.single, replay.singleScript);
+  }
+
+  // replays the multi card script, which moves builds whenever it can
+  @Benchmark
+  @OperationsPerInvocation(SCRIPT_LENGTH)
+  public MultiMoveModel multiCardMoves(Replay replay) {
+    return replay(replay.multi, replay.multiScript);
+  }
+
+  // checks whether the freshly dealt game is over
+  @Benchmark
+  public boolean isGameOver() {
+    return this.multi.isGameOver();
+  }
+
+  // copies the freshly dealt game for a line of play to be tried on
+  @Benchmark
+  public MultiMoveModel fork() {
+    return this.multi.fork();
+  }
+
+  // makes every move of the script on the freshly dealt model
+  private static <T extends SimpleFreecellModel> T replay(T model, int[] script) {
+    for (int move : script) {
+      BenchmarkFixtures.play(model, move);
+    }
+    return model;
+  }
+
+  /**
+   * Holds the models the move benchmarks replay their scripts on, dealt again before every
+   * invocation so that dealing is not timed with the moves.
+   */
+  @State(Scope.Thread)
+  public static class Replay {
+
+    private List<Card> deck;
+    private SimpleFreecellModel single;
+    private MultiMoveModel multi;
+    private int[] singleScript;
+    private int[] multiScript;
+
+    /**
+     * Builds the move scripts of the deal the benchmark measures.
+     *
+     * @param benchmark the benchmark whose deal should be played
+     * @throws IllegalStateException if a script is shorter than {@link #SCRIPT_LENGTH}, which
+     *                               would make each move count for less than one operation
+     */
+    @Setup(Level.Trial)
+    public void setUp(ModelBenchmark benchmark) {
+      this.deck = BenchmarkFixtures.deck(benchmark.dealNumber);
+      this.single = new SimpleFreecellModel(benchmark.dealNumber);
+      this.multi = new MultiMoveModel(benchmark.dealNumber);
+      this.singleScript = BenchmarkFixtures.script(this.single, benchmark.dealNumber,
+          SCRIPT_LENGTH, false);
+      this.multiScript = BenchmarkFixtures.script(this.multi, benchmark.dealNumber,
+          SCRIPT_LENGTH, true);
+      if (this.singleScript.length != SCRIPT_LENGTH || this.multiScript.length != SCRIPT_LENGTH) {
+        throw new IllegalStateException(
+            "Deal " + benchmark.dealNumber + " ends before " + SCRIPT_LENGTH + " moves");
+      }
+    }
+
+    // deals both models again, so that each invocation replays its script from the start
+    @Setup(Level.Invocation)
+    public void deal() {
+      this.single.startGame(this.deck, BenchmarkFixtures.NUM_CASCADES,
+          BenchmarkFixtures.NUM_OPEN, false);
+      this.multi.startGame(this.deck, BenchmarkFixtures.NUM_CASCADES, BenchmarkFixtures.NUM_OPEN,
+          false);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package cs3500.freecell.benchmark;
+
+import cs3500.freecell.model.hw02.SimpleFreecellModel;
+import cs3500.freecell.view.FreecellTextView;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rendering the board of a game part way through its script, both from scratch with a
+ * new view and with a view that only renders the piles changed by the last move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ViewBenchmark {
+
+  @Param({"1", "617", "11982"})
+  public int dealNumber;
+
+  private SimpleFreecellModel model;
+  private FreecellTextView view;
+  private StringBuilder out;
+  private int[] script;
+
+  // plays half of the script of the deal and renders it once
+  @Setup
+  public void setUp() {
+    this.model = new SimpleFreecellModel(this.dealNumber);
+    this.script = BenchmarkFixtures.script(this.model, this.dealNumber, 100, false);
+    for (int i = 0; i < this.script.length / 2; i++) {
+      BenchmarkFixtures.play(this.model, this.script[i]);
+    }
+    this.out = new StringBuilder();
+    this.view = new FreecellTextView(this.model, this.out);
+    this.view.toString();
+  }
+
+  // renders the whole board with a new view
+  @Benchmark
+  public String renderFullBoard() {
+    return new FreecellTextView(this.model).toString();
+  }
+
+  // makes a move and takes it back, then renders the board as a string
+  @Benchmark
+  public String renderAfterMove() {
+    this.toggleMove();
+    return this.view.toString();
+  }
+
+  // makes a move and takes it back, then renders the board straight to the appendable
+  @Benchmark
+  public StringBuilder renderBoardToAppendable() throws IOException {
+    this.toggleMove();
+    this.out.setLength(0);
+    this.view.renderBoard();
+    return this.out;
+  }
+
+  // makes the next move of the script if it has been taken back, or takes it back otherwise
+  private void toggleMove() {
+    if (this.model.canRedo()) {
+      this.model.redo();
+    } else {
+      this.model.undo();
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package cs3500.freecell.controller;
+
+import cs3500.freecell.model.PileType;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Splits the text of a {@link Readable} into whitespace separated tokens and reads pile names such
+ * as {@code C3} and card indices such as {@code 7} from them in place. Tokens are never copied
+ * into strings, and invalid tokens are reported by return values instead of exceptions, so
+ * reading a command allocates nothing.
+ */
+final class CommandTokenizer {
+
+  private static final int BUFFER_SIZE = 4096;
+
+  private final Readable rd;
+  private char[] buffer;
+  private CharBuffer window;
+  private int start;
+  // INVARIANT: the current token is buffer[start, end), and start <= end <= pos <= limit
+  private int end;
+  private int pos;
+  private int limit;
+  private boolean exhausted;
+
+  /**
+   * Constructs a tokenizer over the given readable.
+   *
+   * @param rd the readable to take text from
+   */
+  CommandTokenizer(Readable rd) {
+    this.rd = rd;
+    this.buffer = new char[BUFFER_SIZE];
+    this.window = CharBuffer.wrap(this.buffer);
+    this.start = 0;
+    this.end = 0;
+    this.pos = 0;
+    this.limit = 0;
+    this.exhausted = false;
+  }
+
+  /**
+   * Moves to the next token.
+   *
+   * @return true if there was another token, false if the readable has run out
+   * @throws IllegalStateException if reading from the readable fails
+   */
+  boolean next() throws IllegalStateException {
+    this.start = this.pos;
+    while (true) {
+      if (this.pos == this.limit && !this.fill()) {
+        this.end = this.start;
+        return false;
+      }
+      if (!Character.isWhitespace(this.buffer[this.pos])) {
+        break;
+      }
+      this.pos++;
+      this.start = this.pos;
+    }
+    while ((this.pos < this.limit || this.fill())
+        && !Character.isWhitespace(this.buffer[this.pos])) {
+      this.pos++;
+    }
+    this.end = this.pos;
+    return true;
+  }
+
+  // reads more text after the current token, keeping the token at the front of the buffer, and
+  // returns false if there is no more text
+  private boolean fill() {
+    if (this.exhausted) {
+      return false;
+    }
+    int kept = this.limit - this.start;
+    System.arraycopy(this.buffer, this.start, this.buffer, 0, kept);
+    this.pos -= this.start;
+    this.start = 0;
+    this.limit = kept;
+    if (this.limit == this.buffer.length) {
+      this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+      this.window = CharBuffer.wrap(this.buffer);
+    }
+    int read;
+    try {
+      do {
+        this.window.limit(this.buffer.length).position(this.limit);
+        read = this.rd.read(this.window);
+      } while (read == 0);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not read input");
+    }
+    if (read < 0) {
+      this.exhausted = true;
+      return false;
+    }
+    this.limit += read;
+    return true;
+  }
+
+  // returns true if the current token is q or Q
+  boolean isQuit() {
+    return this.end - this.start == 1
+        && (this.buffer[this.start] == 'q' || this.buffer[this.start] == 'Q');
+  }
+
+  // returns true if the current token is a pile type letter followed by an integer
+  boolean isPile() {
+    return this.end - this.start >= 2 && this.pileType() != null
+        && isInt(this.buffer, this.start + 1, this.end);
+  }
+
+  // returns true if the current token is an integer
+  boolean isInt() {
+    return isInt(this.buffer, this.start, this.end);
+  }
+
+  // returns the type of pile named by the current token, or null if it names none
+  PileType pileType() {
+    switch (this.buffer[this.start]) {
+      case 'C':
+        return PileType.CASCADE;
+      case 'O':
+        return PileType.OPEN;
+      case 'F':
+        return PileType.FOUNDATION;
+      default:
+        return null;
+    }
+  }
+
+  // returns the pile number of the current token, which must be a pile
+  int pileNumber() {
+    return (int) parse(this.buffer, this.start + 1, this.end);
+  }
+
+  // returns the value of the current token, which must be an integer
+  int intValue() {
+    return (int) parse(this.buffer, this.start, this.end);
+  }
+
+  // returns true if the given characters are an optionally signed integer that fits in an int
+  private static boolean isInt(char[] chars, int from, int to) {
+    long value = parse(chars, from, to);
+    return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+  }
+
+  // returns the value of the given characters as an optionally signed integer, or Long.MIN_VALUE
+  // if they are not one or it does not fit in an int
+  private static long parse(char[] chars, int from, int to) {
+    boolean negative = false;
+    if (from < to && (chars[from] == '+' || chars[from] == '-')) {
+      negative = chars[from] == '-';
+      from++;
+    }
+    if (from == to) {
+      return Long.MIN_VALUE;
+    }
+    long value = 0;
+    for (int i = from; i < to; i++) {
+      char c = chars[i];
+      if (c < '0' || c > '9') {
+        return Long.MIN_VALUE;
+      }
+      value = value * 10 + (c - '0');
+      if (value > Integer.MAX_VALUE + 1L) {
+        return Long.MIN_VALUE;
+      }
+    }
+    return negative ? -value : value;
+  }
+}
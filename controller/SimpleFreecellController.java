@@ -1,10 +1,13 @@
 package cs3500.freecell.controller;
 
+import cs3500.freecell.metrics.Counter;
+import cs3500.freecell.metrics.FreecellMetrics;
+import cs3500.freecell.metrics.GameOverEvent;
+import cs3500.freecell.metrics.Latency;
 import cs3500.freecell.model.FreecellModel;
 import cs3500.freecell.view.FreecellTextView;
 import java.io.IOException;
 import java.util.List;
-import java.util.Scanner;
 import cs3500.freecell.model.PileType;
 
 /**
@@ -42,7 +45,7 @@ public class SimpleFreecellController<Card> implements FreecellController<Card>
   @Override
   public void playGame(List<Card> deck, int numCascades, int numOpens, boolean shuffle)
       throws IllegalArgumentException, IllegalStateException {
-    Scanner scan = new Scanner(this.rd);
+    CommandTokenizer tokens = new CommandTokenizer(this.rd);
     if (deck == null || model == null) {
       throw new IllegalArgumentException("Cannot start game with empty model or deck");
     }
@@ -57,6 +60,8 @@ public class SimpleFreecellController<Card> implements FreecellController<Card>
       }
       return;
     }
+    // the time a command was read, timed until the board it leads to has been rendered
+    long turnStarted = 0;
     while (!model.isGameOver()) {
       PileType source;
       int sourcePileNumber;
@@ -69,77 +74,52 @@ public class SimpleFreecellController<Card> implements FreecellController<Card>
       } catch (IOException e) {
         throw new IllegalStateException("Invalid board");
       }
+      FreecellMetrics.record(Latency.CONTROLLER_TURN, turnStarted);
       try {
         view.renderMessage("\n");
       } catch (IOException e) {
         e.printStackTrace();
       }
-      if (!scan.hasNext()) {
-        throw new IllegalStateException("Readable complete.");
-      }
 
-      String sourceString = scan.next();
-      while (!isValidPile(sourceString)) {
-        try {
-          view.renderMessage("\nInvalid move. Try again.");
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
-        sourceString = scan.next();
+      nextToken(tokens);
+      while (!(tokens.isQuit() || tokens.isPile())) {
+        invalidInput(view);
+        nextToken(tokens);
       }
       
-      if (isStringQuitSignal(sourceString)) {
-        try {
-          view.renderMessage("\nGame quit prematurely.");
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
+      if (tokens.isQuit()) {
+        quit(view);
         return;
       }
-      source = getPileType(sourceString);
-      sourcePileNumber = getPileNumber(sourceString) - 1;
+      source = tokens.pileType();
+      sourcePileNumber = tokens.pileNumber() - 1;
 
-      String cardIndexS = scan.next();
-      while (!isValidCardIndex(cardIndexS)) {
-        try {
-          view.renderMessage("\nInvalid move. Try again.");
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
-        cardIndexS = scan.next();
+      nextToken(tokens);
+      while (!(tokens.isQuit() || tokens.isInt())) {
+        invalidInput(view);
+        nextToken(tokens);
       }
 
-      if (isStringQuitSignal(cardIndexS)) {
-        try {
-          view.renderMessage("\nGame quit prematurely.");
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
+      if (tokens.isQuit()) {
+        quit(view);
         return;
       }
-      cardIndex = Integer.valueOf(cardIndexS) - 1;
+      cardIndex = tokens.intValue() - 1;
 
-      String destString = scan.next();
-      while (!isValidPile(destString)) {
-        try {
-          view.renderMessage("\nInvalid move. Try again.");
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
-        destString = scan.next();
+      nextToken(tokens);
+      while (!(tokens.isQuit() || tokens.isPile())) {
+        invalidInput(view);
+        nextToken(tokens);
       }
 
-      if (isStringQuitSignal(destString)) {
-        try {
-          view.renderMessage("\nGame quit prematurely.");
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
+      if (tokens.isQuit()) {
+        quit(view);
         return;
       }
-      destination = getPileType(destString);
-      destPileNumber = getPileNumber(destString) - 1;
-      
+      destination = tokens.pileType();
+      destPileNumber = tokens.pileNumber() - 1;
+      turnStarted = FreecellMetrics.startTimer();
+
       try {
         model.move(source, sourcePileNumber, cardIndex, destination, destPileNumber);
       } catch (Exception e) {
@@ -151,83 +131,47 @@ public class SimpleFreecellController<Card> implements FreecellController<Card>
       }
     }
     endGame(view);
+    FreecellMetrics.record(Latency.CONTROLLER_TURN, turnStarted);
   }
 
+  // moves to the next token of input, or throws an exception if the input has run out
+  private static void nextToken(CommandTokenizer tokens) {
+    if (!tokens.next()) {
+      throw new IllegalStateException("Readable complete.");
+    }
+  }
 
-  // displays game and prints game over
-  private void endGame(FreecellTextView view) {
+  // tells the user that the last token could not be used
+  private static void invalidInput(FreecellTextView view) {
+    FreecellMetrics.increment(Counter.INVALID_INPUT);
     try {
-      view.renderBoard();
+      view.renderMessage("\nInvalid move. Try again.");
     } catch (IOException e) {
       e.printStackTrace();
     }
+  }
+
+  // tells the user that the game was quit
+  private void quit(FreecellTextView view) {
+    GameOverEvent.emit(GameOverEvent.QUIT, this.model);
     try {
-      view.renderMessage("\nGame over.");
+      view.renderMessage("\nGame quit prematurely.");
     } catch (IOException e) {
       e.printStackTrace();
     }
   }
 
-  // Returns true if the card index is valid
-  private boolean isValidCardIndex(String cardIndexS) {
-    return cardIndexS.equalsIgnoreCase("q") || isStringAnInt(cardIndexS);
-  }
-
-  // Returns the pile number from an input string
-  private int getPileNumber(String s) {
-    String pile = s.substring(1);
-    return Integer.valueOf(pile);
-  }
-
-  // Returns the piletype from a given input
-  private PileType getPileType(String s) {
-    String pileType = s.substring(0, 1);
-    switch (pileType) {
-      case "O":
-        return PileType.OPEN;
-      case "F":
-        return PileType.FOUNDATION;
-      case "C":
-        return PileType.CASCADE;
-      default:
-        return null;
-    }
-  }
-
-  // Checks if a pile string indicates game should be quit
-  private boolean isStringQuitSignal(String sourceString) {
-    return sourceString.equalsIgnoreCase("q");
-  }
-
-  // Returns true if the input pile is valid
-  private boolean isValidPile(String source) {
-    if (source.equals("q") || source.equals("Q")) {
-      return true;
-    }
-    if (source.length() < 2) {
-      return false;
-    }
-    String pile = source.substring(0, 1);
-    String pileIndex = source.substring(1);
-
-    if (!(pile.equals("C") || pile.equals("O") || pile.equals("F"))) {
-      return false;
-    }
-    return isStringAnInt(pileIndex);
-  }
-
-  // Returns true if the string holds an integer as a string
-  private boolean isStringAnInt(String s) {
-    if (s == null) {
-      return false;
-    }
+  // displays game and prints game over
+  private void endGame(FreecellTextView view) {
     try {
-      Scanner scan = new Scanner(s);
-      int num = scan.nextInt();
+      view.renderBoard();
+    } catch (IOException e) {
+      e.printStackTrace();
     }
-    catch (Exception e) {
-      return false;
+    try {
+      view.renderMessage("\nGame over.");
+    } catch (IOException e) {
+      e.printStackTrace();
     }
-    return true;
   }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package cs3500.freecell.metrics;
+
+/**
+ * Represents the events {@link FreecellMetrics} counts.
+ */
+public enum Counter {
+  MOVES_ATTEMPTED,
+  MOVES_SUCCEEDED,
+  MOVES_REJECTED_NOT_STARTED,
+  MOVES_REJECTED_SOURCE,
+  MOVES_REJECTED_CAPACITY,
+  MOVES_REJECTED_DESTINATION,
+  GAMES_STARTED,
+  GAMES_COMPLETED,
+  INVALID_INPUT
+}
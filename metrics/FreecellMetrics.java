@@ -0,0 +1,142 @@
+package cs3500.freecell.metrics;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and times the hot paths of the game: moves made on the models, boards rendered by the
+ * text view and commands handled by the controller. Metrics are shared by every game in the
+ * process and are off unless the system property {@code freecell.metrics} is true or they are
+ * turned on with {@link #setEnabled}. While off, each event costs one read of a flag. While on,
+ * each event costs an atomic add, and each timed operation also reads the clock twice. Nothing is
+ * allocated per event either way.
+ *
+ * <p>Timed operations call {@link #startTimer()} first and hand its result to
+ * {@link #record(Latency, long)} afterwards. An operation that started while metrics were off is
+ * not recorded.
+ *
+ * <p>For a trace of single events to read alongside garbage collection and compiler data, the
+ * same paths also emit Java Flight Recorder events, such as {@link MoveEvent}. They are named
+ * {@code cs3500.freecell.*} and are disabled until a recording turns them on through its
+ * settings, for example a {@code .jfc} file passed to {@code jcmd <pid> JFR.start}.
+ */
+public final class FreecellMetrics {
+
+  private static final LongAdder[] COUNTERS;
+  private static final Histogram[] HISTOGRAMS;
+  private static volatile boolean enabled = Boolean.getBoolean("freecell.metrics");
+
+  static {
+    COUNTERS = new LongAdder[Counter.values().length];
+    for (int i = 0; i < COUNTERS.length; i++) {
+      COUNTERS[i] = new LongAdder();
+    }
+    HISTOGRAMS = new Histogram[Latency.values().length];
+    for (int i = 0; i < HISTOGRAMS.length; i++) {
+      HISTOGRAMS[i] = new Histogram();
+    }
+  }
+
+  private FreecellMetrics() {
+  }
+
+  // returns true if metrics are being collected
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  // starts or stops collecting metrics, keeping what has been collected so far
+  public static void setEnabled(boolean on) {
+    enabled = on;
+  }
+
+  // counts one occurrence of the given event
+  public static void increment(Counter counter) {
+    if (enabled) {
+      COUNTERS[counter.ordinal()].increment();
+    }
+  }
+
+  // returns the current time to pass to record, or 0 if metrics are off
+  public static long startTimer() {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  // records the time since the given start time from startTimer for the given operation
+  public static void record(Latency latency, long started) {
+    if (started != 0 && enabled) {
+      HISTOGRAMS[latency.ordinal()].record(System.nanoTime() - started);
+    }
+  }
+
+  /**
+   * Counts a move that was made and records how long it took, as a supermove if it carried more
+   * than one card.
+   *
+   * @param numCards the number of cards moved
+   * @param started  the start time from {@link #startTimer()}
+   */
+  public static void moveSucceeded(int numCards, long started) {
+    if (enabled) {
+      COUNTERS[Counter.MOVES_ATTEMPTED.ordinal()].increment();
+      COUNTERS[Counter.MOVES_SUCCEEDED.ordinal()].increment();
+      record(numCards > 1 ? Latency.SUPERMOVE : Latency.MOVE, started);
+    }
+  }
+
+  /**
+   * Counts a move that was rejected for the given reason.
+   *
+   * @param reason the counter of the reason the move was rejected
+   */
+  public static void moveRejected(Counter reason) {
+    if (enabled) {
+      COUNTERS[Counter.MOVES_ATTEMPTED.ordinal()].increment();
+      COUNTERS[reason.ordinal()].increment();
+    }
+  }
+
+  /**
+   * Returns the metrics collected so far. Counters that change while the snapshot is taken may be
+   * caught before or after the change.
+   *
+   * @return the snapshot
+   */
+  public static MetricsSnapshot snapshot() {
+    long[] counts = new long[COUNTERS.length];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = COUNTERS[i].sum();
+    }
+    long[][] buckets = new long[HISTOGRAMS.length][Histogram.BUCKETS];
+    long[] totals = new long[HISTOGRAMS.length];
+    for (int i = 0; i < HISTOGRAMS.length; i++) {
+      HISTOGRAMS[i].copyBuckets(buckets[i]);
+      totals[i] = HISTOGRAMS[i].total();
+    }
+    return new MetricsSnapshot(counts, buckets, totals);
+  }
+
+  /**
+   * Hands a snapshot of the metrics collected so far to the given exporter.
+   *
+   * @param exporter the exporter to send the metrics to
+   * @throws IllegalArgumentException if the exporter is null
+   * @throws IOException              if the exporter cannot write the metrics
+   */
+  public static void export(MetricsExporter exporter) throws IOException {
+    if (exporter == null) {
+      throw new IllegalArgumentException("Exporter cannot be null");
+    }
+    exporter.export(snapshot());
+  }
+
+  // forgets every metric collected so far
+  public static void reset() {
+    for (LongAdder counter : COUNTERS) {
+      counter.reset();
+    }
+    for (Histogram histogram : HISTOGRAMS) {
+      histogram.reset();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package cs3500.freecell.metrics;
+
+import cs3500.freecell.model.FreecellModelState;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents the Flight Recorder event for the end of a game, either won on the model or quit
+ * through the controller.
+ */
+@Name("cs3500.freecell.GameOver")
+@Label("Game Over")
+@Category({"Freecell", "Game"})
+@Description("A game was won or quit")
+@Enabled(false)
+@StackTrace(false)
+public final class GameOverEvent extends jdk.jfr.Event {
+
+  public static final String WON = "won";
+  public static final String QUIT = "quit";
+
+  @Label("Result")
+  private String result;
+
+  @Label("Foundation Cards")
+  @Description("The number of cards on the foundation piles when the game ended")
+  private int foundationCards;
+
+  /**
+   * Commits an event for the end of the given game, if the event is enabled. The foundation
+   * piles are only read when the event is committed.
+   *
+   * @param result the result of the game, {@link #WON} or {@link #QUIT}
+   * @param state  the game that ended
+   */
+  public static void emit(String result, FreecellModelState<?> state) {
+    GameOverEvent event = new GameOverEvent();
+    if (event.shouldCommit()) {
+      int cards = 0;
+      for (int i = 0; i < 4; i++) {
+        cards += state.getNumCardsInFoundationPile(i);
+      }
+      event.result = result;
+      event.foundationCards = cards;
+      event.commit();
+    }
+  }
+}
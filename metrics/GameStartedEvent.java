@@ -0,0 +1,57 @@
+package cs3500.freecell.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents the Flight Recorder event for dealing a new game, timed from checking the deck to
+ * the end of the deal.
+ */
+@Name("cs3500.freecell.GameStarted")
+@Label("Game Started")
+@Category({"Freecell", "Game"})
+@Description("A new game was dealt")
+@Enabled(false)
+@StackTrace(false)
+public final class GameStartedEvent extends jdk.jfr.Event {
+
+  @Label("Deck Size")
+  private int deckSize;
+
+  @Label("Cascade Piles")
+  private int cascadePiles;
+
+  @Label("Open Piles")
+  private int openPiles;
+
+  @Label("Shuffled")
+  private boolean shuffled;
+
+  @Label("Multi Move")
+  private boolean multiMove;
+
+  /**
+   * Commits this event with the given details of the deal, if the event is enabled.
+   *
+   * @param deckSize     the number of cards dealt
+   * @param cascadePiles the number of cascade piles
+   * @param openPiles    the number of open piles
+   * @param shuffled     true if the deck was shuffled before dealing
+   * @param multiMove    true if the game uses the multi move rules
+   */
+  public void finish(int deckSize, int cascadePiles, int openPiles, boolean shuffled,
+      boolean multiMove) {
+    if (this.shouldCommit()) {
+      this.deckSize = deckSize;
+      this.cascadePiles = cascadePiles;
+      this.openPiles = openPiles;
+      this.shuffled = shuffled;
+      this.multiMove = multiMove;
+      this.commit();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package cs3500.freecell.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents a histogram of durations with one bucket per power of two nanoseconds, so recording
+ * a duration is a couple of atomic adds and never allocates. Bucket i counts the durations of at
+ * least 2^(i - 1) and less than 2^i nanoseconds, and bucket 0 counts durations of 0.
+ */
+final class Histogram {
+
+  static final int BUCKETS = Long.SIZE + 1;
+
+  private final AtomicLongArray buckets;
+  private final LongAdder total;
+
+  /**
+   * Constructs an empty histogram.
+   */
+  Histogram() {
+    this.buckets = new AtomicLongArray(BUCKETS);
+    this.total = new LongAdder();
+  }
+
+  // records one duration in nanoseconds, counting a negative duration as 0
+  void record(long nanos) {
+    long duration = Math.max(nanos, 0);
+    this.buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(duration));
+    this.total.add(duration);
+  }
+
+  // copies the count of each bucket into the given array
+  void copyBuckets(long[] counts) {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = this.buckets.get(i);
+    }
+  }
+
+  // returns the sum of every duration recorded, in nanoseconds
+  long total() {
+    return this.total.sum();
+  }
+
+  // forgets every duration recorded
+  void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.buckets.set(i, 0);
+    }
+    this.total.reset();
+  }
+}
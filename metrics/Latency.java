@@ -0,0 +1,11 @@
+package cs3500.freecell.metrics;
+
+/**
+ * Represents the operations {@link FreecellMetrics} times.
+ */
+public enum Latency {
+  MOVE,
+  SUPERMOVE,
+  RENDER,
+  CONTROLLER_TURN
+}
@@ -0,0 +1,19 @@
+package cs3500.freecell.metrics;
+
+import java.io.IOException;
+
+/**
+ * Represents a destination for the metrics of a running game, such as a log, a monitoring
+ * system or a status page. {@link FreecellMetrics#export} hands each exporter a snapshot, so an
+ * exporter never reads counters while they change.
+ */
+public interface MetricsExporter {
+
+  /**
+   * Send the given metrics to this exporter's destination.
+   *
+   * @param snapshot the metrics to export
+   * @throws IOException if the metrics cannot be written
+   */
+  void export(MetricsSnapshot snapshot) throws IOException;
+}
@@ -0,0 +1,76 @@
+package cs3500.freecell.metrics;
+
+/**
+ * Represents the counters and latency histograms of {@link FreecellMetrics} at one moment. A
+ * snapshot never changes once taken.
+ */
+public final class MetricsSnapshot {
+
+  private final long[] counts;
+  private final long[][] buckets;
+  private final long[] totals;
+
+  /**
+   * Constructs a snapshot, taking ownership of the given arrays.
+   *
+   * @param counts  represents the count of each {@link Counter}, by ordinal
+   * @param buckets represents the histogram buckets of each {@link Latency}, by ordinal
+   * @param totals  represents the total nanoseconds recorded for each {@link Latency}, by ordinal
+   */
+  MetricsSnapshot(long[] counts, long[][] buckets, long[] totals) {
+    this.counts = counts;
+    this.buckets = buckets;
+    this.totals = totals;
+  }
+
+  // returns the number of times the given event happened
+  public long getCount(Counter counter) {
+    return this.counts[counter.ordinal()];
+  }
+
+  // returns the number of times the given operation was timed
+  public long getCount(Latency latency) {
+    long count = 0;
+    for (long bucket : this.buckets[latency.ordinal()]) {
+      count += bucket;
+    }
+    return count;
+  }
+
+  // returns the total time spent in the given operation, in nanoseconds
+  public long getTotalNanos(Latency latency) {
+    return this.totals[latency.ordinal()];
+  }
+
+  // returns the mean time of the given operation in nanoseconds, or 0 if it was never timed
+  public long getMeanNanos(Latency latency) {
+    long count = this.getCount(latency);
+    return count == 0 ? 0 : this.getTotalNanos(latency) / count;
+  }
+
+  /**
+   * Returns an upper bound on the given percentile of the times of the given operation. Times are
+   * kept in power of two buckets, so the bound is within a factor of two of the true percentile.
+   *
+   * @param latency    the operation
+   * @param percentile the percentile, between 0 and 100
+   * @return the bound in nanoseconds, or 0 if the operation was never timed
+   * @throws IllegalArgumentException if the percentile is out of range
+   */
+  public long getPercentileNanos(Latency latency, double percentile) {
+    if (!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+    long[] counts = this.buckets[latency.ordinal()];
+    long count = this.getCount(latency);
+    long rank = (long) Math.ceil(count * percentile / 100);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) {
+        return i == 0 ? 0 : i == Long.SIZE ? Long.MAX_VALUE : (1L << i) - 1;
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,58 @@
+package cs3500.freecell.metrics;
+
+import cs3500.freecell.model.PileType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents the Flight Recorder event for a move made through a model, timed from checking the
+ * move to the end of telling listeners about it.
+ */
+@Name("cs3500.freecell.Move")
+@Label("Move")
+@Category({"Freecell", "Game"})
+@Description("A move was made")
+@Enabled(false)
+@StackTrace(false)
+public final class MoveEvent extends jdk.jfr.Event {
+
+  @Label("Source")
+  private String source;
+
+  @Label("Source Pile")
+  private int sourcePile;
+
+  @Label("Destination")
+  private String destination;
+
+  @Label("Destination Pile")
+  private int destinationPile;
+
+  @Label("Cards")
+  private int cards;
+
+  /**
+   * Commits this event with the given move, if the event is enabled and lasted long enough.
+   *
+   * @param source          the type of the source pile
+   * @param sourcePile      the index of the source pile
+   * @param destination     the type of the destination pile
+   * @param destinationPile the index of the destination pile
+   * @param cards           the number of cards moved
+   */
+  public void finish(PileType source, int sourcePile, PileType destination,
+      int destinationPile, int cards) {
+    if (this.shouldCommit()) {
+      this.source = source.name();
+      this.sourcePile = sourcePile;
+      this.destination = destination.name();
+      this.destinationPile = destinationPile;
+      this.cards = cards;
+      this.commit();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package cs3500.freecell.metrics;
+
+import cs3500.freecell.model.PileType;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents the Flight Recorder event for a move a model refused, with the message of the
+ * exception it was refused with.
+ */
+@Name("cs3500.freecell.MoveRejected")
+@Label("Move Rejected")
+@Category({"Freecell", "Game"})
+@Description("A move was refused by the model")
+@Enabled(false)
+@StackTrace(false)
+public final class MoveRejectedEvent extends jdk.jfr.Event {
+
+  @Label("Source")
+  private String source;
+
+  @Label("Source Pile")
+  private int sourcePile;
+
+  @Label("Card Index")
+  private int cardIndex;
+
+  @Label("Destination")
+  private String destination;
+
+  @Label("Destination Pile")
+  private int destinationPile;
+
+  @Label("Reason")
+  private String reason;
+
+  /**
+   * Commits this event with the given move and exception, if the event is enabled.
+   *
+   * @param source          the type of the source pile, or null
+   * @param sourcePile      the index of the source pile
+   * @param cardIndex       the index of the first card to move
+   * @param destination     the type of the destination pile, or null
+   * @param destinationPile the index of the destination pile
+   * @param reason          the exception the move was refused with
+   */
+  public void finish(PileType source, int sourcePile, int cardIndex, PileType destination,
+      int destinationPile, RuntimeException reason) {
+    if (this.shouldCommit()) {
+      this.source = source == null ? null : source.name();
+      this.sourcePile = sourcePile;
+      this.cardIndex = cardIndex;
+      this.destination = destination == null ? null : destination.name();
+      this.destinationPile = destinationPile;
+      this.reason = reason.getMessage();
+      this.commit();
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package cs3500.freecell.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Represents the Flight Recorder event for rendering a board, timed from reading the model to the
+ * last line written.
+ */
+@Name("cs3500.freecell.Render")
+@Label("Render")
+@Category({"Freecell", "View"})
+@Description("A board was rendered")
+@Enabled(false)
+@StackTrace(false)
+public final class RenderEvent extends jdk.jfr.Event {
+
+  @Label("Lines")
+  @Description("The number of pile lines written, 0 if no game had started")
+  private int lines;
+
+  /**
+   * Commits this event, if the event is enabled and lasted long enough.
+   *
+   * @param lines the number of pile lines written, 0 if no game had started
+   */
+  public void finish(int lines) {
+    if (this.shouldCommit()) {
+      this.lines = lines;
+      this.commit();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package cs3500.freecell.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Represents the Flight Recorder event a solver emits every few thousand positions it expands,
+ * so a long search can be followed while it runs.
+ */
+@Name("cs3500.freecell.SolverProgress")
+@Label("Solver Progress")
+@Category({"Freecell", "Solver"})
+@Description("Progress of a running search for a solution")
+@Enabled(false)
+@StackTrace(false)
+public final class SolverProgressEvent extends jdk.jfr.Event {
+
+  @Label("Solver")
+  private String solver;
+
+  @Label("Expanded")
+  @Description("The number of positions expanded so far")
+  private long expanded;
+
+  @Label("Generated")
+  @Description("The number of new positions found so far")
+  private long generated;
+
+  @Label("Frontier")
+  @Description("The number of positions waiting to be expanded")
+  private int frontier;
+
+  @Label("Elapsed")
+  @Timespan(Timespan.NANOSECONDS)
+  private long elapsed;
+
+  /**
+   * Commits an event for the given progress of a search, if the event is enabled.
+   *
+   * @param solver    the class of the solver
+   * @param expanded  the number of positions expanded so far
+   * @param generated the number of new positions found so far
+   * @param frontier  the number of positions waiting to be expanded
+   * @param elapsed   the time since the search started, in nanoseconds
+   */
+  public static void emit(Class<?> solver, long expanded, long generated, int frontier,
+      long elapsed) {
+    SolverProgressEvent event = new SolverProgressEvent();
+    if (event.shouldCommit()) {
+      event.solver = solver.getSimpleName();
+      event.expanded = expanded;
+      event.generated = generated;
+      event.frontier = frontier;
+      event.elapsed = elapsed;
+      event.commit();
+    }
+  }
+}
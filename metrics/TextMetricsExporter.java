@@ -0,0 +1,48 @@
+package cs3500.freecell.metrics;
+
+import java.io.IOException;
+
+/**
+ * Writes metrics as plain text, one counter or operation per line, to an {@link Appendable}.
+ * Each operation shows how many times it was timed, its mean and its 50th, 99th and 99.9th
+ * percentiles in microseconds.
+ */
+public final class TextMetricsExporter implements MetricsExporter {
+
+  private final Appendable out;
+
+  /**
+   * Constructs an exporter that writes to the given destination.
+   *
+   * @param out the destination to write to
+   * @throws IllegalArgumentException if the destination is null
+   */
+  public TextMetricsExporter(Appendable out) {
+    if (out == null) {
+      throw new IllegalArgumentException("Destination cannot be null");
+    }
+    this.out = out;
+  }
+
+  @Override
+  public void export(MetricsSnapshot snapshot) throws IOException {
+    for (Counter counter : Counter.values()) {
+      this.out.append(counter.name().toLowerCase()).append(' ')
+          .append(Long.toString(snapshot.getCount(counter))).append('\n');
+    }
+    for (Latency latency : Latency.values()) {
+      this.out.append(latency.name().toLowerCase()).append(" count ")
+          .append(Long.toString(snapshot.getCount(latency)))
+          .append(" mean_us ").append(micros(snapshot.getMeanNanos(latency)))
+          .append(" p50_us ").append(micros(snapshot.getPercentileNanos(latency, 50)))
+          .append(" p99_us ").append(micros(snapshot.getPercentileNanos(latency, 99)))
+          .append(" p999_us ").append(micros(snapshot.getPercentileNanos(latency, 99.9)))
+          .append('\n');
+    }
+  }
+
+  // returns the given nanoseconds in microseconds with one decimal place
+  private static String micros(long nanos) {
+    return String.format("%.1f", nanos / 1000.0);
+  }
+}
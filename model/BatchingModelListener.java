@@ -0,0 +1,173 @@
+package cs3500.freecell.model;
+
+import java.util.Arrays;
+
+/**
+ * Represents a listener that gathers the changes of a model until its consumer is ready for them,
+ * such as a renderer that redraws once per frame. It remembers which piles changed and by how
+ * many cards since it was last cleared. A pile can change even when its net change is zero, if a
+ * card left it and another took its place.
+ */
+public class BatchingModelListener implements FreecellModelListener {
+
+  private static final int NUM_FOUNDATIONS = 4;
+
+  private boolean restarted;
+  private int numChanged;
+  private int numMoves;
+  private boolean[] changedCascades;
+  private boolean[] changedOpen;
+  private final boolean[] changedFoundations;
+  private int[] cascadeDeltas;
+  private int[] openDeltas;
+  private final int[] foundationDeltas;
+
+  /**
+   * Constructs a listener with no changes gathered.
+   */
+  public BatchingModelListener() {
+    this.restarted = false;
+    this.numChanged = 0;
+    this.numMoves = 0;
+    this.changedCascades = new boolean[0];
+    this.changedOpen = new boolean[0];
+    this.changedFoundations = new boolean[NUM_FOUNDATIONS];
+    this.cascadeDeltas = new int[0];
+    this.openDeltas = new int[0];
+    this.foundationDeltas = new int[NUM_FOUNDATIONS];
+  }
+
+  // resizes the gathered piles to the new game and marks the whole board as changed
+  @Override
+  public void gameStarted(int numCascadePiles, int numOpenPiles) {
+    if (this.changedCascades.length != numCascadePiles) {
+      this.changedCascades = new boolean[numCascadePiles];
+      this.cascadeDeltas = new int[numCascadePiles];
+    }
+    if (this.changedOpen.length != numOpenPiles) {
+      this.changedOpen = new boolean[numOpenPiles];
+      this.openDeltas = new int[numOpenPiles];
+    }
+    this.clear();
+    this.restarted = true;
+  }
+
+  // marks the pile as changed and adds to its net change
+  @Override
+  public void pileChanged(PileType type, int pileNumber, int delta) {
+    boolean[] changed = this.changedOf(type);
+    if (!changed[pileNumber]) {
+      changed[pileNumber] = true;
+      this.numChanged++;
+    }
+    this.deltasOf(type)[pileNumber] += delta;
+  }
+
+  // counts the move
+  @Override
+  public void moveCompleted(int move) {
+    this.numMoves++;
+  }
+
+  // counts the move taken back
+  @Override
+  public void moveUndone(int move) {
+    this.numMoves++;
+  }
+
+  /**
+   * Returns whether anything has changed since the listener was last cleared.
+   *
+   * @return true if a game was started or any pile changed
+   */
+  public boolean hasChanges() {
+    return this.restarted || this.numChanged > 0;
+  }
+
+  /**
+   * Returns whether a game was started since the listener was last cleared, in which case every
+   * pile should be treated as changed.
+   *
+   * @return true if a game was started
+   */
+  public boolean wasRestarted() {
+    return this.restarted;
+  }
+
+  /**
+   * Returns whether the given pile has changed since the listener was last cleared.
+   *
+   * @param type       the type of the pile
+   * @param pileNumber the index of the pile, starting at 0
+   * @return true if cards were added to or removed from the pile, or a game was started
+   * @throws IllegalArgumentException if the pile does not exist
+   */
+  public boolean isChanged(PileType type, int pileNumber) throws IllegalArgumentException {
+    return this.restarted || this.changedOf(type)[this.checkPile(type, pileNumber)];
+  }
+
+  /**
+   * Returns the net number of cards added to the given pile since the listener was last
+   * cleared, not counting the cards dealt when a game starts.
+   *
+   * @param type       the type of the pile
+   * @param pileNumber the index of the pile, starting at 0
+   * @return the net number of cards added, negative if more cards were removed
+   * @throws IllegalArgumentException if the pile does not exist
+   */
+  public int netChange(PileType type, int pileNumber) throws IllegalArgumentException {
+    return this.deltasOf(type)[this.checkPile(type, pileNumber)];
+  }
+
+  // returns the number of moves made or taken back since the listener was last cleared
+  public int getNumMoves() {
+    return this.numMoves;
+  }
+
+  /**
+   * Forgets every gathered change, so that the next batch starts empty.
+   */
+  public void clear() {
+    Arrays.fill(this.changedCascades, false);
+    Arrays.fill(this.changedOpen, false);
+    Arrays.fill(this.changedFoundations, false);
+    Arrays.fill(this.cascadeDeltas, 0);
+    Arrays.fill(this.openDeltas, 0);
+    Arrays.fill(this.foundationDeltas, 0);
+    this.restarted = false;
+    this.numChanged = 0;
+    this.numMoves = 0;
+  }
+
+  // returns the changed flags of the piles of the given type
+  private boolean[] changedOf(PileType type) {
+    switch (type) {
+      case CASCADE:
+        return this.changedCascades;
+      case OPEN:
+        return this.changedOpen;
+      default:
+        return this.changedFoundations;
+    }
+  }
+
+  // returns the net changes of the piles of the given type
+  private int[] deltasOf(PileType type) {
+    switch (type) {
+      case CASCADE:
+        return this.cascadeDeltas;
+      case OPEN:
+        return this.openDeltas;
+      default:
+        return this.foundationDeltas;
+    }
+  }
+
+  // returns the given pile index, or throws an exception if there is no such pile
+  private int checkPile(PileType type, int pileNumber) {
+    if (type == null || pileNumber < 0 || pileNumber >= this.changedOf(type).length) {
+      throw new IllegalArgumentException("Pile index is out of range");
+    }
+    return pileNumber;
+  }
+}
@@ -0,0 +1,245 @@
+package cs3500.freecell.model.hw02;
+
+import cs3500.freecell.model.Move;
+import cs3500.freecell.model.PileType;
+
+/**
+ * Represents the canonical form of a board. Boards that differ only in the order of their cascade
+ * piles, the order of their open piles, the order of their foundation piles, or by swapping the
+ * two black suits or the two red suits with each other can be solved by the same moves, so they
+ * all share one canonical form and one canonical hash.
+ *
+ * <p>The canonical form keeps the mapping between its piles and the piles of the board it was
+ * made from, so that moves found on the canonical board can be made on the real one.
+ */
+public final class CanonicalPosition {
+
+  // SUIT_SWAPS[variant][suit] is the suit a card of the given suit becomes in that variant, where
+  // bit 0 of the variant swaps clubs and spades and bit 1 swaps diamonds and hearts
+  private static final int[][] SUIT_SWAPS = {
+      {0, 1, 2, 3},
+      {0, 2, 1, 3},
+      {3, 1, 2, 0},
+      {3, 2, 1, 0}};
+  private static final long EMPTY_CASCADE = 0x510e527fade682d1L;
+
+  private final long hash;
+  private final int variant;
+  private final PackedBoard board;
+  private final int[] cascadeOrder;
+  private final int[] openOrder;
+  private final int[] foundationOrder;
+
+  private CanonicalPosition(long hash, int variant, PackedBoard board, int[] cascadeOrder,
+      int[] openOrder, int[] foundationOrder) {
+    this.hash = hash;
+    this.variant = variant;
+    this.board = board;
+    this.cascadeOrder = cascadeOrder;
+    this.openOrder = openOrder;
+    this.foundationOrder = foundationOrder;
+  }
+
+  /**
+   * Returns the canonical hash of the given board without building its canonical form. Boards
+   * that are the same up to pile order and same colored suit swaps have the same canonical hash.
+   *
+   * @param board represents the board to hash
+   * @return the canonical hash
+   */
+  public static long hash(PackedBoard board) {
+    long best = variantHash(board, 0);
+    for (int v = 1; v < SUIT_SWAPS.length; v++) {
+      best = Math.min(best, variantHash(board, v));
+    }
+    return best;
+  }
+
+  /**
+   * Returns the canonical form of the given board.
+   *
+   * @param board represents the board to put in canonical form
+   * @return the canonical form, with the mapping back to the piles of the given board
+   */
+  public static CanonicalPosition of(PackedBoard board) {
+    int variant = 0;
+    long best = variantHash(board, 0);
+    for (int v = 1; v < SUIT_SWAPS.length; v++) {
+      long h = variantHash(board, v);
+      if (h < best) {
+        best = h;
+        variant = v;
+      }
+    }
+    int numCascades = board.numCascades();
+    int numOpen = board.numOpen();
+
+    // cascades are ordered by their swapped bottom card, with empty cascades last
+    int[] cascadeOrder = new int[numCascades];
+    int[] cascadeKeys = new int[numCascades];
+    for (int i = 0; i < numCascades; i++) {
+      cascadeOrder[i] = i;
+      cascadeKeys[i] = board.height(i) == 0 ? Integer.MAX_VALUE
+          : swap(board.cascadeAt(i, 0), variant);
+    }
+    sortBy(cascadeOrder, cascadeKeys);
+
+    // open piles are ordered by their swapped card, with empty piles last
+    int[] openOrder = new int[numOpen];
+    int[] openKeys = new int[numOpen];
+    for (int i = 0; i < numOpen; i++) {
+      openOrder[i] = i;
+      int card = board.openAt(i);
+      openKeys[i] = card == PackedBoard.EMPTY ? Integer.MAX_VALUE : swap(card, variant);
+    }
+    sortBy(openOrder, openKeys);
+
+    // foundation pile i holds the swapped suit i, or an unused empty pile
+    int[] foundationOrder = new int[PackedBoard.NUM_FOUNDATIONS];
+    boolean[] used = new boolean[PackedBoard.NUM_FOUNDATIONS];
+    boolean[] filled = new boolean[PackedBoard.NUM_FOUNDATIONS];
+    for (int i = 0; i < PackedBoard.NUM_FOUNDATIONS; i++) {
+      int top = board.foundationTop(i);
+      if (top != PackedBoard.EMPTY) {
+        int suit = PackedBoard.suitOf(swap(top, variant));
+        foundationOrder[suit] = i;
+        used[i] = true;
+        filled[suit] = true;
+      }
+    }
+    int next = 0;
+    for (int suit = 0; suit < PackedBoard.NUM_FOUNDATIONS; suit++) {
+      if (!filled[suit]) {
+        while (used[next]) {
+          next++;
+        }
+        foundationOrder[suit] = next;
+        used[next] = true;
+      }
+    }
+
+    PackedBoard canonical = new PackedBoard(board.numCascades(), numOpen, Card.NUM_CARDS);
+    for (int i = 0; i < numCascades; i++) {
+      int real = cascadeOrder[i];
+      for (int k = 0; k < board.height(real); k++) {
+        canonical.push(i, swap(board.cascadeAt(real, k), variant));
+      }
+    }
+    for (int i = 0; i < numOpen; i++) {
+      int card = board.openAt(openOrder[i]);
+      canonical.setOpen(i, card == PackedBoard.EMPTY ? card : swap(card, variant));
+    }
+    for (int i = 0; i < PackedBoard.NUM_FOUNDATIONS; i++) {
+      int top = board.foundationTop(foundationOrder[i]);
+      canonical.setFoundation(i, top == PackedBoard.EMPTY ? top : swap(top, variant));
+    }
+    return new CanonicalPosition(best, variant, canonical, cascadeOrder, openOrder,
+        foundationOrder);
+  }
+
+  // returns the hash of the board with the suits swapped as the given variant says, ignoring the
+  // order of every kind of pile
+  private static long variantHash(PackedBoard board, int variant) {
+    long total = 0;
+    for (int i = 0; i < board.numCascades(); i++) {
+      int height = board.height(i);
+      long pile = EMPTY_CASCADE;
+      for (int k = 0; k < height; k++) {
+        pile ^= Zobrist.cascadeKey(0, k, swap(board.cascadeAt(i, k), variant));
+      }
+      // mixing each pile before adding keeps cards in the same pile apart from cards that are
+      // only at the same height in different piles
+      total += Zobrist.mix(pile);
+    }
+    for (int i = 0; i < board.numOpen(); i++) {
+      int card = board.openAt(i);
+      if (card != PackedBoard.EMPTY) {
+        total += Zobrist.openKey(0, swap(card, variant));
+      }
+    }
+    for (int i = 0; i < PackedBoard.NUM_FOUNDATIONS; i++) {
+      int top = board.foundationTop(i);
+      if (top != PackedBoard.EMPTY) {
+        total += Zobrist.foundationKey(0, swap(top, variant));
+      }
+    }
+    return total;
+  }
+
+  // returns the code of the given card with its suit swapped as the given variant says
+  private static int swap(int code, int variant) {
+    return PackedBoard.codeOf(PackedBoard.valueOf(code),
+        SUIT_SWAPS[variant][PackedBoard.suitOf(code)]);
+  }
+
+  // sorts the given indices by their keys, keeping equal keys in index order
+  private static void sortBy(int[] indices, int[] keys) {
+    for (int i = 1; i < indices.length; i++) {
+      int index = indices[i];
+      int k = i - 1;
+      while (k >= 0 && keys[indices[k]] > keys[index]) {
+        indices[k + 1] = indices[k];
+        k--;
+      }
+      indices[k + 1] = index;
+    }
+  }
+
+  // returns the canonical hash of the position
+  public long hash() {
+    return this.hash;
+  }
+
+  // returns a copy of the board in canonical form
+  public PackedBoard toBoard() {
+    return new PackedBoard(this.board);
+  }
+
+  // returns the index of the real cascade pile shown at the given canonical index
+  public int realCascade(int canonicalIndex) {
+    return this.cascadeOrder[canonicalIndex];
+  }
+
+  // returns the index of the real open pile shown at the given canonical index
+  public int realOpen(int canonicalIndex) {
+    return this.openOrder[canonicalIndex];
+  }
+
+  // returns the index of the real foundation pile shown at the given canonical index
+  public int realFoundation(int canonicalIndex) {
+    return this.foundationOrder[canonicalIndex];
+  }
+
+  // returns the real card shown as the card with the given canonical code
+  public Card realCard(int canonicalCode) {
+    // every variant swaps pairs of suits, so it is its own inverse
+    return PackedBoard.cardOf(swap(canonicalCode, this.variant));
+  }
+
+  /**
+   * Returns the packed move on the real board that matches the given packed move on the
+   * canonical board.
+   *
+   * @param canonicalMove represents a packed move on the canonical board
+   * @return the same packed move on the real board
+   */
+  public int realMove(int canonicalMove) {
+    return Move.pack(Move.source(canonicalMove),
+        this.realPile(Move.source(canonicalMove), Move.pileNumber(canonicalMove)),
+        Move.cardIndex(canonicalMove), Move.destination(canonicalMove),
+        this.realPile(Move.destination(canonicalMove), Move.destPileNumber(canonicalMove)),
+        Move.count(canonicalMove));
+  }
+
+  // returns the real index of the canonical pile of the given type
+  private int realPile(PileType type, int canonicalIndex) {
+    switch (type) {
+      case OPEN:
+        return this.realOpen(canonicalIndex);
+      case CASCADE:
+        return this.realCascade(canonicalIndex);
+      default:
+        return this.realFoundation(canonicalIndex);
+    }
+  }
+}
@@ -3,10 +3,22 @@ package cs3500.freecell.model.hw02;
 import java.util.Objects;
 
 /**
- * Represents a Playing Card object.
+ * Represents a Playing Card object. The 52 distinct cards are interned in a table indexed by their
+ * ordinal, so {@link #of(int, Suit)} and {@link #fromOrdinal(int)} never allocate.
  */
 public class Card {
 
+  public static final int NUM_CARDS = 52;
+  private static final Card[] CARDS = new Card[NUM_CARDS];
+
+  static {
+    for (Suit s : Suit.values()) {
+      for (int v = 1; v <= 13; v++) {
+        CARDS[s.ordinal() * 13 + v - 1] = new Card(v, s);
+      }
+    }
+  }
+
   protected final int value;
   protected final Suit suit;
 
@@ -25,26 +37,41 @@ public class Card {
     this.suit = Objects.requireNonNull(suit);
   }
 
+  /**
+   * Returns the interned card with the given value and suit.
+   *
+   * @param value represents the value of the card
+   * @param suit  represents the suit of the card
+   * @return the card
+   * @throws IllegalArgumentException if the value is not between 1 and 13 or the suit is null
+   */
+  public static Card of(int value, Suit suit) {
+    if (value > 13 || value < 1 || suit == null) {
+      throw new IllegalArgumentException("Card value can only be between 1 and 13");
+    }
+    return CARDS[suit.ordinal() * 13 + value - 1];
+  }
+
+  /**
+   * Returns the interned card with the given ordinal.
+   *
+   * @param ordinal represents the ordinal of the card, see {@link #ordinal()}
+   * @return the card
+   * @throws IllegalArgumentException if the ordinal is not between 0 and 51
+   */
+  public static Card fromOrdinal(int ordinal) {
+    if (ordinal < 0 || ordinal >= NUM_CARDS) {
+      throw new IllegalArgumentException("Card ordinal can only be between 0 and 51");
+    }
+    return CARDS[ordinal];
+  }
+
   /**
    * checks if the given card is valid.
    * @return true if valid
    */
   public boolean cardValid() {
-    boolean val = false;
-    for (int i = 1; i < 14; i++) {
-      if (this.value == i)  {
-        val = true;
-        break;
-      }
-    }
-    boolean suit = false;
-    for (Suit s : Suit.values()) {
-      if (this.suit.equals(s)) {
-        suit = true;
-        break;
-      }
-    }
-    return val && suit;
+    return this.value >= 1 && this.value <= 13 && this.suit != null;
   }
 
   // returns the suit of the card
@@ -57,6 +84,11 @@ public class Card {
     return this.value;
   }
 
+  // returns the dense index of the card, suit ordinal * 13 + value - 1
+  public int ordinal() {
+    return this.suit.ordinal() * 13 + this.value - 1;
+  }
+
   // returns the numerical value of the card as a String
   private String getValueString() {
     String val = "";
@@ -89,4 +121,21 @@ public class Card {
     return (this.suit == Suit.CLUB || this.suit == Suit.SPADE) == (card.suit == Suit.CLUB
         || card.suit == Suit.SPADE);
   }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof Card)) {
+      return false;
+    }
+    Card that = (Card) other;
+    return this.value == that.value && this.suit == that.suit;
+  }
+
+  @Override
+  public int hashCode() {
+    return this.ordinal();
+  }
 }
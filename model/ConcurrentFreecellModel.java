@@ -0,0 +1,266 @@
+package cs3500.freecell.model.hw02;
+
+import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.FreecellModelCreator;
+import cs3500.freecell.model.FreecellModelListener;
+import cs3500.freecell.model.PileType;
+import java.util.List;
+
+/**
+ * Represents a game that one thread plays while any number of other threads read it, such as
+ * spectator views and hint workers. Every change is made on a wrapped {@link SimpleFreecellModel}
+ * or {@link cs3500.freecell.model.hw04.MultiMoveModel} while holding the lock of this model, and
+ * then published as an immutable {@link PositionSnapshot} through a volatile field. Readers never
+ * lock, so they never hold up the player, and the player never waits for them.
+ *
+ * <p>Each getter reads the latest snapshot, so a single call is always consistent. A reader that
+ * makes several calls, such as a view rendering a whole board, should take {@link #snapshot()}
+ * once and read from it, so that a move made in between cannot tear what it sees, and a reader
+ * that searches, such as a hint worker, can search a {@link #fork()}. Listeners are told of each
+ * change on the thread that made it, after the change has been published.
+ */
+public final class ConcurrentFreecellModel implements FreecellModel<Card> {
+
+  private final SimpleFreecellModel model;
+  // INVARIANT: model is only used while holding the lock of this object
+  private volatile PositionSnapshot current;
+  // INVARIANT: current matches the position of model whenever the lock is not held
+  private long version;
+  private long gameVersion;
+  private long[] pileVersions;
+  // INVARIANT: pileVersions holds the version of the snapshot in which each pile last changed,
+  // foundation piles first, then open piles, then cascade piles
+
+  /**
+   * Constructs a concurrent model that plays by the rules of the given model. The given model
+   * must not be used directly from now on.
+   *
+   * @param model represents the model whose rules and game this model uses
+   * @throws IllegalArgumentException if the model is null
+   */
+  public ConcurrentFreecellModel(SimpleFreecellModel model) {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    this.model = model;
+    this.version = 0;
+    this.gameVersion = 0;
+    this.pileVersions = model.gameStarted ? new long[PackedBoard.NUM_FOUNDATIONS
+        + model.board.numOpen() + model.board.numCascades()] : new long[0];
+    this.publish();
+    // added first, so that the new position is published before any other listener is told
+    model.addListener(new Publisher());
+  }
+
+  // replaces the published snapshot with one of the position of the wrapped model
+  private void publish() {
+    PackedBoard board = this.model.gameStarted ? new PackedBoard(this.model.board) : null;
+    this.current = new PositionSnapshot(this.version++, board, this.model.canUndo(),
+        this.model.canRedo(), this.gameVersion, this.pileVersions.clone());
+  }
+
+  /**
+   * Returns the latest published state of the game. The snapshot never changes, so a reader may
+   * make any number of calls on it and see one position.
+   *
+   * @return the latest snapshot
+   */
+  public PositionSnapshot snapshot() {
+    return this.current;
+  }
+
+  /**
+   * Returns a new model of the wrapped type holding the latest published position, for a reader
+   * such as a hint worker that needs a whole model to search from. Taking the copy reads one
+   * snapshot and never locks. The copy has no moves to undo or redo, no listeners, and shuffles
+   * of its own.
+   *
+   * @return the copy
+   */
+  public SimpleFreecellModel fork() {
+    PositionSnapshot snapshot = this.current;
+    SimpleFreecellModel copy =
+        (SimpleFreecellModel) FreecellModelCreator.create(this.model.getGameType());
+    if (snapshot.board() != null) {
+      copy.restore(new PackedBoard(snapshot.board()));
+    }
+    return copy;
+  }
+
+  // returns the rules of the wrapped model, which never change
+  @Override
+  public FreecellModelCreator.GameType getGameType() {
+    return this.model.getGameType();
+  }
+
+  // returns the Zobrist hash of the latest published position
+  public long getPositionHash() throws IllegalStateException {
+    return this.current.getPositionHash();
+  }
+
+  // returns the shared, unmodifiable deck of playing cards
+  @Override
+  public List<Card> getDeck() {
+    return this.model.getDeck();
+  }
+
+  @Override
+  public synchronized void startGame(List<Card> deck, int numCascadePiles, int numOpenPiles,
+      boolean shuffle) throws IllegalArgumentException {
+    this.model.startGame(deck, numCascadePiles, numOpenPiles, shuffle);
+  }
+
+  @Override
+  public synchronized void move(PileType source, int pileNumber, int cardIndex,
+      PileType destination, int destPileNumber)
+      throws IllegalArgumentException, IllegalStateException {
+    this.model.move(source, pileNumber, cardIndex, destination, destPileNumber);
+  }
+
+  @Override
+  public synchronized int autoPlay(int[] buffer)
+      throws IllegalArgumentException, IllegalStateException {
+    return this.model.autoPlay(buffer);
+  }
+
+  // writes every legal move of the current position, holding the lock so that no move is made
+  // while they are found
+  @Override
+  public synchronized int legalMoves(int[] buffer)
+      throws IllegalArgumentException, IllegalStateException {
+    return this.model.legalMoves(buffer);
+  }
+
+  @Override
+  public synchronized int maxLegalMoves() throws IllegalStateException {
+    return this.model.maxLegalMoves();
+  }
+
+  @Override
+  public synchronized void undo() throws IllegalStateException {
+    this.model.undo();
+  }
+
+  @Override
+  public synchronized void redo() throws IllegalStateException {
+    this.model.redo();
+  }
+
+  @Override
+  public boolean canUndo() {
+    return this.current.canUndo();
+  }
+
+  @Override
+  public boolean canRedo() {
+    return this.current.canRedo();
+  }
+
+  @Override
+  public synchronized void addListener(FreecellModelListener listener)
+      throws IllegalArgumentException {
+    this.model.addListener(listener);
+  }
+
+  @Override
+  public synchronized void removeListener(FreecellModelListener listener) {
+    this.model.removeListener(listener);
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return this.current.isGameOver();
+  }
+
+  @Override
+  public int getNumCardsInFoundationPile(int index)
+      throws IllegalArgumentException, IllegalStateException {
+    return this.current.getNumCardsInFoundationPile(index);
+  }
+
+  @Override
+  public int getNumCascadePiles() {
+    return this.current.getNumCascadePiles();
+  }
+
+  @Override
+  public int getNumCardsInCascadePile(int index)
+      throws IllegalArgumentException, IllegalStateException {
+    return this.current.getNumCardsInCascadePile(index);
+  }
+
+  @Override
+  public int getNumCardsInOpenPile(int index)
+      throws IllegalArgumentException, IllegalStateException {
+    return this.current.getNumCardsInOpenPile(index);
+  }
+
+  @Override
+  public int getNumOpenPiles() {
+    return this.current.getNumOpenPiles();
+  }
+
+  @Override
+  public Card getFoundationCardAt(int pileIndex, int cardIndex)
+      throws IllegalArgumentException, IllegalStateException {
+    return this.current.getFoundationCardAt(pileIndex, cardIndex);
+  }
+
+  @Override
+  public Card getCascadeCardAt(int pileIndex, int cardIndex)
+      throws IllegalArgumentException, IllegalStateException {
+    return this.current.getCascadeCardAt(pileIndex, cardIndex);
+  }
+
+  @Override
+  public Card getOpenCardAt(int pileIndex)
+      throws IllegalArgumentException, IllegalStateException {
+    return this.current.getOpenCardAt(pileIndex);
+  }
+
+  /**
+   * Publishes each change of the wrapped model as soon as it is made. It is told of changes on
+   * the thread making them, which holds the lock of the concurrent model. Being the first
+   * listener, it is told every pile a move changed and that the move is done before any other
+   * listener is told anything, so it publishes once per move, when the move is done.
+   */
+  private final class Publisher implements FreecellModelListener {
+
+    // stamps the whole board with the version about to be published
+    @Override
+    public void gameStarted(int numCascadePiles, int numOpenPiles) {
+      int numPiles = PackedBoard.NUM_FOUNDATIONS + numOpenPiles + numCascadePiles;
+      if (pileVersions.length != numPiles) {
+        pileVersions = new long[numPiles];
+      }
+      gameVersion = version;
+      publish();
+    }
+
+    // stamps the pile with the version about to be published
+    @Override
+    public void pileChanged(PileType type, int pileNumber, int delta) {
+      int numOpen = model.board.numOpen();
+      switch (type) {
+        case FOUNDATION:
+          pileVersions[pileNumber] = version;
+          break;
+        case OPEN:
+          pileVersions[PackedBoard.NUM_FOUNDATIONS + pileNumber] = version;
+          break;
+        default:
+          pileVersions[PackedBoard.NUM_FOUNDATIONS + numOpen + pileNumber] = version;
+      }
+    }
+
+    @Override
+    public void moveCompleted(int move) {
+      publish();
+    }
+
+    @Override
+    public void moveUndone(int move) {
+      publish();
+    }
+  }
+}
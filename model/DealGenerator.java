@@ -0,0 +1,115 @@
+package cs3500.freecell.model.hw02;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Generates decks for freecell games from seeds, so that every deal can be reproduced. A generator
+ * deals a stream of decks from a {@link SplittableRandom}, and {@link #split()} hands another
+ * thread its own independent stream. {@link #classicDeal(int)} reproduces the well known numbered
+ * deals, which come out as the usual layout when dealt into 8 cascade piles without shuffling.
+ */
+public final class DealGenerator {
+
+  // the classic deals number the cards by value, and within a value as clubs, diamonds, hearts
+  // then spades
+  private static final Suit[] CLASSIC_SUITS = {Suit.CLUB, Suit.DIAMOND, Suit.HEART, Suit.SPADE};
+
+  private final SplittableRandom random;
+
+  /**
+   * Constructs a generator whose decks are determined by the given seed.
+   *
+   * @param seed represents the seed of the generator
+   */
+  public DealGenerator(long seed) {
+    this(new SplittableRandom(seed));
+  }
+
+  private DealGenerator(SplittableRandom random) {
+    this.random = random;
+  }
+
+  /**
+   * Returns the deck dealt by the given seed. The same seed always gives the same deck, and it is
+   * the first deck a new generator with that seed deals.
+   *
+   * @param seed represents the seed of the deal
+   * @return the deck, which cannot be modified
+   */
+  public static List<Card> deal(long seed) {
+    return new DealGenerator(seed).nextDeal();
+  }
+
+  /**
+   * Returns the numbered deal from the classic freecell game, using its linear congruential
+   * generator.
+   *
+   * @param dealNumber represents the number of the deal, at least 1
+   * @return the deck, which cannot be modified
+   * @throws IllegalArgumentException if the deal number is not positive
+   */
+  public static List<Card> classicDeal(int dealNumber) {
+    if (dealNumber < 1) {
+      throw new IllegalArgumentException("Deal numbers start at 1");
+    }
+    int[] cards = new int[Card.NUM_CARDS];
+    for (int i = 0; i < cards.length; i++) {
+      cards[i] = cards.length - 1 - i;
+    }
+    long state = dealNumber;
+    for (int i = 0; i < cards.length; i++) {
+      state = (state * 214013 + 2531011) & 0x7fffffff;
+      int k = cards.length - 1 - (int) (state >> 16) % (cards.length - i);
+      int card = cards[i];
+      cards[i] = cards[k];
+      cards[k] = card;
+    }
+    Card[] deck = new Card[cards.length];
+    for (int i = 0; i < cards.length; i++) {
+      deck[i] = Card.of(cards[i] / 4 + 1, CLASSIC_SUITS[cards[i] % 4]);
+    }
+    return Collections.unmodifiableList(Arrays.asList(deck));
+  }
+
+  /**
+   * Returns the next deck of this generator.
+   *
+   * @return the deck, which cannot be modified
+   */
+  public List<Card> nextDeal() {
+    Card[] deck = new Card[Card.NUM_CARDS];
+    for (int i = 0; i < deck.length; i++) {
+      deck[i] = Card.fromOrdinal(i);
+    }
+    for (int i = deck.length - 1; i > 0; i--) {
+      int k = this.random.nextInt(i + 1);
+      Card card = deck[i];
+      deck[i] = deck[k];
+      deck[k] = card;
+    }
+    return Collections.unmodifiableList(Arrays.asList(deck));
+  }
+
+  /**
+   * Returns an endless stream of the decks of this generator.
+   *
+   * @return the stream of decks
+   */
+  public Stream<List<Card>> deals() {
+    return Stream.generate(this::nextDeal);
+  }
+
+  /**
+   * Returns a new generator that deals independently of this one, for use on another thread. A
+   * generator must not be shared between threads.
+   *
+   * @return the new generator
+   */
+  public DealGenerator split() {
+    return new DealGenerator(this.random.split());
+  }
+}
@@ -57,6 +57,94 @@ public interface FreecellModel<K> extends FreecellModelState<K> {
       int destPileNumber) throws IllegalArgumentException,
       IllegalStateException;
 
+  /**
+   * Write every legal move in the current position to the given buffer as packed moves, see
+   * {@link Move#pack}. Nothing is allocated, so this can be called as often as needed.
+   *
+   * @param buffer the buffer to write the moves to, at least {@link #maxLegalMoves()} long
+   * @return the number of moves written
+   * @throws IllegalArgumentException if the buffer is null or shorter than {@link #maxLegalMoves()}
+   * @throws IllegalStateException    if the game has not started
+   */
+  int legalMoves(int[] buffer) throws IllegalArgumentException, IllegalStateException;
+
+  /**
+   * Return the most legal moves any position of the current game can have, which is the buffer
+   * size {@link #legalMoves(int[])} needs.
+   *
+   * @return the most legal moves of a position
+   * @throws IllegalStateException if the game has not started
+   */
+  int maxLegalMoves() throws IllegalStateException;
+
+  /**
+   * Move every card that is safe to play to the foundation piles, one card at a time, until no
+   * safe card is left on top of a cascade or open pile. A card is safe once no card that could
+   * still be built on it remains off the foundations: it is an ace or a two, or both foundation
+   * piles of the opposite color reach at least one rank below it. Each card moved is an ordinary
+   * move that can be undone and is reported to listeners.
+   *
+   * @param buffer the buffer to write the moves made to as packed moves, see {@link Move#pack},
+   *               at least 52 long, or null if the moves are not wanted
+   * @return the number of cards moved
+   * @throws IllegalArgumentException if the buffer is shorter than 52
+   * @throws IllegalStateException    if the game has not started
+   */
+  int autoPlay(int[] buffer) throws IllegalArgumentException, IllegalStateException;
+
+  /**
+   * Take back the most recent move that is still in effect, restoring the position before it.
+   *
+   * @throws IllegalStateException if the game has not started or no move has been made
+   */
+  void undo() throws IllegalStateException;
+
+  /**
+   * Make again the most recently undone move. Making a new move with
+   * {@link #move(PileType, int, int, PileType, int)} discards every move that could be redone.
+   *
+   * @throws IllegalStateException if the game has not started or there is no undone move
+   */
+  void redo() throws IllegalStateException;
+
+  /**
+   * Signal if a move can be undone.
+   *
+   * @return true if the game has started and a move is in effect, false otherwise
+   */
+  boolean canUndo();
+
+  /**
+   * Signal if an undone move can be made again.
+   *
+   * @return true if the game has started and there is an undone move, false otherwise
+   */
+  boolean canRedo();
+
+  /**
+   * Register a listener to be told about every change to the game from now on. Listeners are
+   * told in the order they were added, on the thread that changed the game.
+   *
+   * @param listener the listener to add
+   * @throws IllegalArgumentException if the listener is null
+   */
+  void addListener(FreecellModelListener listener) throws IllegalArgumentException;
+
+  /**
+   * Stop telling the given listener about changes. Does nothing if it was never added.
+   *
+   * @param listener the listener to remove
+   */
+  void removeListener(FreecellModelListener listener);
+
+  /**
+   * Return the rules this model plays by, which decide whether a build of several cards may be
+   * moved at once. The rules of a model never change.
+   *
+   * @return the type of game this model plays
+   */
+  FreecellModelCreator.GameType getGameType();
+
   /**
    * Signal if the game is over or not.
    *
@@ -0,0 +1,55 @@
+package cs3500.freecell.model;
+
+/**
+ * Represents an observer of a {@link FreecellModel} that is told what changed after each
+ * successful change to the game, so that it can update itself without reading the whole board
+ * again. Events are plain numbers and packed moves, so sending them allocates nothing.
+ * {@link BatchingModelListener} gathers events for a consumer that prefers to read them later.
+ */
+public interface FreecellModelListener {
+
+  /**
+   * Called after a game has been started, when every pile may have changed.
+   *
+   * @param numCascadePiles the number of cascade piles of the new game
+   * @param numOpenPiles    the number of open piles of the new game
+   */
+  void gameStarted(int numCascadePiles, int numOpenPiles);
+
+  /**
+   * Called after a saved position has replaced the game, when every pile may have changed.
+   * Unlike a started game, the piles need not hold a fresh deal. By default this is reported as
+   * a started game.
+   *
+   * @param numCascadePiles the number of cascade piles of the restored game
+   * @param numOpenPiles    the number of open piles of the restored game
+   */
+  default void positionRestored(int numCascadePiles, int numOpenPiles) {
+    this.gameStarted(numCascadePiles, numOpenPiles);
+  }
+
+  /**
+   * Called when cards have been added to or removed from the top of a pile.
+   *
+   * @param type       the type of the pile
+   * @param pileNumber the index of the pile, starting at 0
+   * @param delta      the number of cards added to the pile, negative if cards were removed
+   */
+  void pileChanged(PileType type, int pileNumber, int delta);
+
+  /**
+   * Called after a move has been made, including a move made again by redo, once every pile it
+   * changed has been reported.
+   *
+   * @param move the packed move, see {@link Move#pack}
+   */
+  void moveCompleted(int move);
+
+  /**
+   * Called after a move has been taken back by undo, once every pile it changed has been
+   * reported.
+   *
+   * @param move the packed move that was taken back, see {@link Move#pack}
+   */
+  void moveUndone(int move);
+}
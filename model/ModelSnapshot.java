@@ -0,0 +1,278 @@
+package cs3500.freecell.model.hw02;
+
+import cs3500.freecell.model.FreecellModelCreator;
+import cs3500.freecell.model.Move;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Saves the position of a {@link SimpleFreecellModel} or a model extending it to a few bytes, and
+ * restores it, so that a game can be moved to another process, recovered after a crash or used as
+ * a cache key. Each is a single pass over the buffer. Equal positions of the same type of model
+ * always give equal bytes. Moves that could be undone or redone are not saved.
+ *
+ * <p>A snapshot starts with four bytes:
+ * <pre>
+ * byte  the format version, {@link #VERSION}
+ * byte  flags, 1 if the game has started, plus 2 if it uses the multi move rules
+ * byte  number of cascade piles, unsigned
+ * byte  number of open piles, unsigned
+ * </pre>
+ * A started game is followed by 6 bit symbols, packed high bit first and padded to a whole byte.
+ * There is the top card code of each foundation pile, then the card code of each open pile, both
+ * with 0 for an empty pile, then the card codes of each cascade pile from the bottom up, each
+ * pile ended by {@link #END}. Cards under the top of a foundation pile follow from its top, so
+ * every card is written at most once. A standard board of 8 cascade and 4 open piles takes at most
+ * 55 bytes.
+ */
+public final class ModelSnapshot {
+
+  public static final int VERSION = 1;
+
+  private static final int HEADER_SIZE = 4;
+  private static final int STARTED = 1;
+  private static final int MULTI = 2;
+  private static final int BITS = 6;
+  private static final int END = (1 << BITS) - 1;
+  private static final long FULL_DECK = (1L << Card.NUM_CARDS) - 1;
+
+  private ModelSnapshot() {
+  }
+
+  /**
+   * Returns the most bytes a snapshot of a game with the given numbers of piles can take.
+   *
+   * @param numCascades the number of cascade piles
+   * @param numOpen     the number of open piles
+   * @return the largest size of the snapshot in bytes
+   */
+  public static int maxSize(int numCascades, int numOpen) {
+    int symbols = PackedBoard.NUM_FOUNDATIONS + numOpen + Card.NUM_CARDS + numCascades;
+    return HEADER_SIZE + (symbols * BITS + 7) / 8;
+  }
+
+  /**
+   * Returns a snapshot of the given model.
+   *
+   * @param model the model to save
+   * @return the bytes of the snapshot
+   * @throws IllegalArgumentException if the model is null
+   */
+  public static byte[] of(SimpleFreecellModel model) throws IllegalArgumentException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    ByteBuffer buffer = model.gameStarted
+        ? ByteBuffer.allocate(maxSize(model.board.numCascades(), model.board.numOpen()))
+        : ByteBuffer.allocate(HEADER_SIZE);
+    write(model, buffer);
+    byte[] bytes = new byte[buffer.position()];
+    buffer.flip();
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Writes a snapshot of the given model to the given buffer, starting at its position and
+   * leaving its position after the snapshot.
+   *
+   * @param model  the model to save
+   * @param buffer the buffer to write to, with room for at least {@link #maxSize} bytes
+   * @return the number of bytes written
+   * @throws IllegalArgumentException if the model or buffer is null, or the buffer is too small
+   */
+  public static int write(SimpleFreecellModel model, ByteBuffer buffer)
+      throws IllegalArgumentException {
+    if (model == null || buffer == null) {
+      throw new IllegalArgumentException("Model and buffer cannot be null");
+    }
+    int start = buffer.position();
+    int flags = model.getGameType() == FreecellModelCreator.GameType.MULTIMOVE ? MULTI : 0;
+    PackedBoard board = model.board;
+    if (!model.gameStarted) {
+      if (buffer.remaining() < HEADER_SIZE) {
+        throw new IllegalArgumentException("Buffer is too small");
+      }
+      buffer.put((byte) VERSION).put((byte) flags).put((byte) 0).put((byte) 0);
+      return HEADER_SIZE;
+    }
+    int numCascades = board.numCascades();
+    int numOpen = board.numOpen();
+    if (buffer.remaining() < maxSize(numCascades, numOpen)) {
+      throw new IllegalArgumentException("Buffer is too small");
+    }
+    buffer.put((byte) VERSION).put((byte) (flags | STARTED)).put((byte) numCascades)
+        .put((byte) numOpen);
+    long bits = 0;
+    int numBits = 0;
+    // the symbols are written in the order they are read, so one loop covers every pile
+    int foundationEnd = PackedBoard.NUM_FOUNDATIONS;
+    int openEnd = foundationEnd + numOpen;
+    for (int i = 0; i < openEnd; i++) {
+      int code = i < foundationEnd ? board.foundationTop(i) : board.openAt(i - foundationEnd);
+      bits = bits << BITS | code;
+      numBits += BITS;
+      if (numBits >= 8) {
+        numBits -= 8;
+        buffer.put((byte) (bits >>> numBits));
+      }
+    }
+    for (int pile = 0; pile < numCascades; pile++) {
+      int height = board.height(pile);
+      for (int k = 0; k <= height; k++) {
+        bits = bits << BITS | (k == height ? END : board.cascadeAt(pile, k));
+        numBits += BITS;
+        if (numBits >= 8) {
+          numBits -= 8;
+          buffer.put((byte) (bits >>> numBits));
+        }
+      }
+    }
+    if (numBits > 0) {
+      buffer.put((byte) (bits << (8 - numBits)));
+    }
+    return buffer.position() - start;
+  }
+
+  /**
+   * Returns a new model of the saved type holding the saved position.
+   *
+   * @param snapshot the bytes of a snapshot
+   * @return the restored model
+   * @throws IllegalArgumentException if the snapshot is null or not a valid snapshot
+   */
+  public static SimpleFreecellModel read(byte[] snapshot) throws IllegalArgumentException {
+    if (snapshot == null) {
+      throw new IllegalArgumentException("Snapshot cannot be null");
+    }
+    return read(ByteBuffer.wrap(snapshot));
+  }
+
+  /**
+   * Reads a snapshot from the given buffer, starting at its position and leaving its position
+   * after the snapshot, and returns a new model of the saved type holding the saved position.
+   *
+   * @param buffer the buffer to read from
+   * @return the restored model
+   * @throws IllegalArgumentException if the buffer is null or does not hold a valid snapshot
+   */
+  public static SimpleFreecellModel read(ByteBuffer buffer) throws IllegalArgumentException {
+    if (buffer == null) {
+      throw new IllegalArgumentException("Buffer cannot be null");
+    }
+    if (buffer.remaining() < 2) {
+      throw new IllegalArgumentException("Snapshot is truncated");
+    }
+    FreecellModelCreator.GameType type = (buffer.get(buffer.position() + 1) & MULTI) != 0
+        ? FreecellModelCreator.GameType.MULTIMOVE : FreecellModelCreator.GameType.SINGLEMOVE;
+    SimpleFreecellModel model = (SimpleFreecellModel) FreecellModelCreator.create(type);
+    restore(model, buffer);
+    return model;
+  }
+
+  /**
+   * Reads a snapshot from the given buffer, starting at its position and leaving its position
+   * after the snapshot, and replaces the game of the given model with the saved position. Its
+   * listeners are told the position was restored, and every move that could be undone or redone
+   * is forgotten. A snapshot taken before any game started leaves a model with no game as it is,
+   * and cannot be restored into a started game, which listeners would have no way to learn had
+   * ended. The model is left unchanged if the snapshot is invalid.
+   *
+   * @param model  the model to restore into, of the type the snapshot was taken from
+   * @param buffer the buffer to read from
+   * @throws IllegalArgumentException if the model or buffer is null, the buffer does not hold a
+   *                                  valid snapshot, the snapshot is of another type of model, or
+   *                                  it holds no game and the model has started one
+   */
+  public static void restore(SimpleFreecellModel model, ByteBuffer buffer)
+      throws IllegalArgumentException {
+    if (model == null || buffer == null) {
+      throw new IllegalArgumentException("Model and buffer cannot be null");
+    }
+    try {
+      if (buffer.get() != VERSION) {
+        throw new IllegalArgumentException("Unknown snapshot version");
+      }
+      int flags = buffer.get();
+      int numCascades = buffer.get() & 0xff;
+      int numOpen = buffer.get() & 0xff;
+      boolean multi = (flags & MULTI) != 0;
+      if ((flags & ~(STARTED | MULTI)) != 0
+          || multi != (model.getGameType() == FreecellModelCreator.GameType.MULTIMOVE)) {
+        throw new IllegalArgumentException("Snapshot is of another type of model");
+      }
+      if ((flags & STARTED) == 0) {
+        if (model.gameStarted) {
+          throw new IllegalArgumentException("Snapshot holds no game to replace the started one");
+        }
+        return;
+      }
+      model.restore(readBoard(buffer, numCascades, numOpen));
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Snapshot is truncated");
+    }
+  }
+
+  // reads the piles of a started game, checking that they hold every card exactly once
+  private static PackedBoard readBoard(ByteBuffer buffer, int numCascades, int numOpen) {
+    if (numCascades < 4 || numOpen < 1 || numCascades > Move.MAX_PILES
+        || numOpen > Move.MAX_PILES) {
+      throw new IllegalArgumentException("Invalid number of piles");
+    }
+    PackedBoard board = new PackedBoard(numCascades, numOpen, Card.NUM_CARDS);
+    long seen = 0;
+    long duplicates = 0;
+    long bits = 0;
+    int numBits = 0;
+    int foundationEnd = PackedBoard.NUM_FOUNDATIONS;
+    int openEnd = foundationEnd + numOpen;
+    int slot = 0;
+    int pile = 0;
+    while (pile < numCascades) {
+      if (numBits < BITS) {
+        bits = bits << 8 | (buffer.get() & 0xff);
+        numBits += 8;
+      }
+      numBits -= BITS;
+      int code = (int) (bits >>> numBits) & END;
+      if (code > Card.NUM_CARDS && code != END) {
+        throw new IllegalArgumentException("Invalid card code " + code);
+      }
+      long cards;
+      if (slot < foundationEnd) {
+        if (code == END) {
+          throw new IllegalArgumentException("Invalid card code " + code);
+        }
+        // a foundation pile holds every card of its suit up to its top
+        cards = code == PackedBoard.EMPTY ? 0
+            : (1L << code) - (1L << (code - PackedBoard.valueOf(code)));
+        board.setFoundation(slot, code);
+      } else if (slot < openEnd) {
+        if (code == END) {
+          throw new IllegalArgumentException("Invalid card code " + code);
+        }
+        cards = code == PackedBoard.EMPTY ? 0 : 1L << (code - 1);
+        board.setOpen(slot - foundationEnd, code);
+      } else if (code == END) {
+        cards = 0;
+        pile++;
+      } else if (code == PackedBoard.EMPTY) {
+        throw new IllegalArgumentException("Cascade pile holds an empty card");
+      } else {
+        cards = 1L << (code - 1);
+        try {
+          board.push(pile, code);
+        } catch (IllegalStateException e) {
+          throw new IllegalArgumentException("Cascade pile " + pile + " is too tall");
+        }
+      }
+      duplicates |= seen & cards;
+      seen |= cards;
+      slot++;
+    }
+    if (duplicates != 0 || seen != FULL_DECK) {
+      throw new IllegalArgumentException("Snapshot does not hold every card exactly once");
+    }
+    return board;
+  }
+}
@@ -0,0 +1,189 @@
+package cs3500.freecell.model;
+
+import java.util.Objects;
+
+/**
+ * Represents a single move of a freecell game, holding the same arguments as
+ * {@link FreecellModel#move(PileType, int, int, PileType, int)}. A move can also be packed into a
+ * single non-negative int, which also records how many cards it carries, so that search code can
+ * keep moves in primitive arrays.
+ */
+public final class Move {
+
+  private static final PileType[] PILE_TYPES = PileType.values();
+  private static final int PILE_BITS = 7;
+  private static final int INDEX_BITS = 7;
+  private static final int COUNT_BITS = 6;
+  private static final int SOURCE_PILE_SHIFT = 2;
+  private static final int INDEX_SHIFT = SOURCE_PILE_SHIFT + PILE_BITS;
+  private static final int DEST_SHIFT = INDEX_SHIFT + INDEX_BITS;
+  private static final int DEST_PILE_SHIFT = DEST_SHIFT + 2;
+  private static final int COUNT_SHIFT = DEST_PILE_SHIFT + PILE_BITS;
+  public static final int MAX_PILES = 1 << PILE_BITS;
+
+  private final PileType source;
+  private final int pileNumber;
+  private final int cardIndex;
+  private final PileType destination;
+  private final int destPileNumber;
+
+  /**
+   * Constructs a move.
+   *
+   * @param source         the type of the source pile
+   * @param pileNumber     the pile number of the given type, starting at 0
+   * @param cardIndex      the index of the card to be moved from the source pile, starting at 0
+   * @param destination    the type of the destination pile
+   * @param destPileNumber the pile number of the given type, starting at 0
+   * @throws IllegalArgumentException if either pile type is null
+   */
+  public Move(PileType source, int pileNumber, int cardIndex, PileType destination,
+      int destPileNumber) {
+    if (source == null || destination == null) {
+      throw new IllegalArgumentException("Pile types cannot be null");
+    }
+    this.source = source;
+    this.pileNumber = pileNumber;
+    this.cardIndex = cardIndex;
+    this.destination = destination;
+    this.destPileNumber = destPileNumber;
+  }
+
+  /**
+   * Packs a move into an int.
+   *
+   * @param source         the type of the source pile
+   * @param pileNumber     the pile number of the given type, below {@link #MAX_PILES}
+   * @param cardIndex      the index of the first card moved, below 128
+   * @param destination    the type of the destination pile
+   * @param destPileNumber the pile number of the given type, below {@link #MAX_PILES}
+   * @param count          the number of cards moved, between 1 and 63
+   * @return the packed move
+   */
+  public static int pack(PileType source, int pileNumber, int cardIndex, PileType destination,
+      int destPileNumber, int count) {
+    return source.ordinal()
+        | pileNumber << SOURCE_PILE_SHIFT
+        | cardIndex << INDEX_SHIFT
+        | destination.ordinal() << DEST_SHIFT
+        | destPileNumber << DEST_PILE_SHIFT
+        | count << COUNT_SHIFT;
+  }
+
+  // returns the type of the source pile of a packed move
+  public static PileType source(int move) {
+    return PILE_TYPES[move & 3];
+  }
+
+  // returns the source pile number of a packed move
+  public static int pileNumber(int move) {
+    return (move >>> SOURCE_PILE_SHIFT) & (MAX_PILES - 1);
+  }
+
+  // returns the index of the first card moved by a packed move
+  public static int cardIndex(int move) {
+    return (move >>> INDEX_SHIFT) & ((1 << INDEX_BITS) - 1);
+  }
+
+  // returns the type of the destination pile of a packed move
+  public static PileType destination(int move) {
+    return PILE_TYPES[(move >>> DEST_SHIFT) & 3];
+  }
+
+  // returns the destination pile number of a packed move
+  public static int destPileNumber(int move) {
+    return (move >>> DEST_PILE_SHIFT) & (MAX_PILES - 1);
+  }
+
+  // returns the number of cards moved by a packed move
+  public static int count(int move) {
+    return (move >>> COUNT_SHIFT) & ((1 << COUNT_BITS) - 1);
+  }
+
+  /**
+   * Unpacks a packed move.
+   *
+   * @param move the packed move
+   * @return the move
+   */
+  public static Move unpack(int move) {
+    return new Move(source(move), pileNumber(move), cardIndex(move), destination(move),
+        destPileNumber(move));
+  }
+
+  /**
+   * Makes this move on the given model.
+   *
+   * @param model the model to make the move on
+   * @throws IllegalArgumentException if the move is not possible
+   * @throws IllegalStateException    if the game has not started
+   */
+  public void applyTo(FreecellModel<?> model) {
+    model.move(this.source, this.pileNumber, this.cardIndex, this.destination,
+        this.destPileNumber);
+  }
+
+  // returns the type of the source pile
+  public PileType getSource() {
+    return this.source;
+  }
+
+  // returns the source pile number
+  public int getPileNumber() {
+    return this.pileNumber;
+  }
+
+  // returns the index of the first card moved
+  public int getCardIndex() {
+    return this.cardIndex;
+  }
+
+  // returns the type of the destination pile
+  public PileType getDestination() {
+    return this.destination;
+  }
+
+  // returns the destination pile number
+  public int getDestPileNumber() {
+    return this.destPileNumber;
+  }
+
+  // returns the move as controller input, such as "C1 7 F2"
+  @Override
+  public String toString() {
+    return pileName(this.source) + (this.pileNumber + 1) + " " + (this.cardIndex + 1) + " "
+        + pileName(this.destination) + (this.destPileNumber + 1);
+  }
+
+  // returns the letter the controller uses for the given pile type
+  private static String pileName(PileType pile) {
+    switch (pile) {
+      case OPEN:
+        return "O";
+      case CASCADE:
+        return "C";
+      default:
+        return "F";
+    }
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof Move)) {
+      return false;
+    }
+    Move that = (Move) other;
+    return this.source == that.source && this.pileNumber == that.pileNumber
+        && this.cardIndex == that.cardIndex && this.destination == that.destination
+        && this.destPileNumber == that.destPileNumber;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.source, this.pileNumber, this.cardIndex, this.destination,
+        this.destPileNumber);
+  }
+}
@@ -1,9 +1,14 @@
 package cs3500.freecell.model.hw04;
 
+import cs3500.freecell.metrics.Counter;
+import cs3500.freecell.metrics.FreecellMetrics;
+import cs3500.freecell.metrics.MoveEvent;
+import cs3500.freecell.metrics.MoveRejectedEvent;
+import cs3500.freecell.model.FreecellModelCreator;
+import cs3500.freecell.model.Move;
 import cs3500.freecell.model.PileType;
-import cs3500.freecell.model.hw02.Card;
+import cs3500.freecell.model.hw02.PackedBoard;
 import cs3500.freecell.model.hw02.SimpleFreecellModel;
-import java.util.List;
 
 /**
  * A freecell operation extending a simplefreecellmodel that allows the moving of multiple
@@ -12,122 +17,213 @@ import java.util.List;
 
 public class MultiMoveModel extends SimpleFreecellModel {
 
-  // moves a list of cards to the given destination
-  private void moveCards(List<Card> tar, PileType dest, int destPN) {
-    if (dest == PileType.FOUNDATION) {
-      foundation.get(destPN).addAll(tar);
-    } else if (dest == PileType.OPEN) {
-      open.get(destPN).addAll(tar);
-    } else if (dest == PileType.CASCADE) {
-      cascade.get(destPN).addAll(tar);
-    } else {
-      throw new IllegalArgumentException("Invalid Move");
-    }
+  /**
+   * Constructs a multi move model that shuffles differently every run.
+   */
+  public MultiMoveModel() {
+    super();
+  }
+
+  /**
+   * Constructs a multi move model whose shuffles are determined by the given seed.
+   *
+   * @param seed represents the seed used to shuffle decks
+   */
+  public MultiMoveModel(long seed) {
+    super(seed);
+  }
+
+  /**
+   * Constructs a multi move model holding a copy of the position of the given model, for
+   * {@link #fork()}.
+   *
+   * @param other represents the model to copy
+   */
+  protected MultiMoveModel(MultiMoveModel other) {
+    super(other);
+  }
+
+  // returns an independent copy of this model that also plays by the multi move rules
+  @Override
+  public MultiMoveModel fork() {
+    return new MultiMoveModel(this);
+  }
+
+  // returns the rules this model plays by
+  @Override
+  public FreecellModelCreator.GameType getGameType() {
+    return FreecellModelCreator.GameType.MULTIMOVE;
   }
-  
-  // returns the list of cards being moved, or throws an exception if the source is invalid
-  private List<Card> getListWanted(PileType p, int pileNumber, int cardIndex) {
+
+  // returns the code of the first card being moved, or throws an exception if the source is
+  // invalid
+  private int getCardWanted(PileType p, int pileNumber, int cardIndex) {
     int sSize = getSize(p, pileNumber);
-    if (p == PileType.OPEN && cardIndex == sSize - 1) {
-      return this.open.get(pileNumber).subList(cardIndex, sSize);
-    } else if (p == PileType.FOUNDATION && cardIndex == sSize - 1) {
-      return this.foundation.get(pileNumber).subList(cardIndex, sSize);
+    if (p == PileType.OPEN && cardIndex == sSize - 1 && sSize > 0) {
+      return board.openAt(pileNumber);
+    } else if (p == PileType.FOUNDATION && cardIndex == sSize - 1 && sSize > 0) {
+      return board.foundationTop(pileNumber);
     } else if (p == PileType.CASCADE && validCards(pileNumber, cardIndex)) {
-      return this.cascade.get(pileNumber).subList(cardIndex, sSize);
+      return board.cascadeAt(pileNumber, cardIndex);
     } else {
       throw new IllegalArgumentException("Invalid source");
     }
 
   }
-  
+
   // returns the size of the given pile
   private int getSize(PileType s, int pile) {
-    if (s == PileType.FOUNDATION && pile >= 0 && pile < foundation.size()) {
-      return this.foundation.get(pile).size();
-    } else if (s == PileType.OPEN && pile >= 0 && pile < open.size()) {
-      return this.open.get(pile).size();
-    } else if (s == PileType.CASCADE && pile >= 0 && pile < cascade.size()) {
-      return this.cascade.get(pile).size();
+    if (s == PileType.FOUNDATION && pile >= 0 && pile < PackedBoard.NUM_FOUNDATIONS) {
+      return board.foundationSize(pile);
+    } else if (s == PileType.OPEN && pile >= 0 && pile < board.numOpen()) {
+      return board.openAt(pile) == PackedBoard.EMPTY ? 0 : 1;
+    } else if (s == PileType.CASCADE && pile >= 0 && pile < board.numCascades()) {
+      return board.height(pile);
     } else {
       throw new IllegalArgumentException("Invalid Source");
     }
 
   }
 
-  // returns true if cards are valid to be moved from the given cascade pile
+  // returns true if cards are valid to be moved from the given cascade pile, meaning they form a
+  // build of alternating colors and values decreasing by one
   private boolean validCards(int pileNumber, int cardIndex) {
-    int cascadeSize = cascade.get(pileNumber).size();
-    boolean valid = true;
-    try {
-      List<Card> cardList = cascade.get(pileNumber).subList(cardIndex, cascadeSize);
-      for (int i = 0; i < cardList.size() - 1; i++) {
-        valid = valid && !(cardList.get(i + 1).sameColor(cardList.get(i)));
-      }
-    } catch (IllegalArgumentException e) {
+    int cascadeSize = board.height(pileNumber);
+    if (cardIndex < 0 || cardIndex >= cascadeSize) {
       throw new IllegalArgumentException("Invalid source");
     }
-    return valid;
+    for (int i = cardIndex; i < cascadeSize - 1; i++) {
+      if (!stacks(board.cascadeAt(pileNumber, i + 1), board.cascadeAt(pileNumber, i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // returns the most cards that can be moved at once, doubled by each empty cascade pile and
+  // raised by one for each empty open pile
+  private int capacity() {
+    // no build is longer than a suit, so the shift is capped to stay within an int
+    return (board.emptyOpen() + 1) << Math.min(board.emptyCascades(), 4);
+  }
+
+  // returns true if the card with the given code can be placed on the card below it in a cascade
+  private static boolean stacks(int card, int below) {
+    return PackedBoard.isRed(card) != PackedBoard.isRed(below)
+        && PackedBoard.valueOf(below) - PackedBoard.valueOf(card) == 1;
   }
-  
-  // checks if the pile is valid to move cards to
-  private Boolean validDest(List<Card> cardList, PileType dest, int destPN) {
-    Card first = cardList.get(0);
+
+  // checks if the pile is valid to move the given number of cards to
+  private Boolean validDest(int first, int numCards, PileType dest, int destPN) {
+    checkPile(dest, destPN);
     if (dest == PileType.FOUNDATION) {
-      int foundationSize = foundation.get(destPN).size();
-      if (foundationSize == 0) {
-        return cardList.size() == 1 && first.getValue() == 1;
+      int top = board.foundationTop(destPN);
+      if (top == PackedBoard.EMPTY) {
+        return numCards == 1 && PackedBoard.valueOf(first) == 1;
       } else {
-        return cardList.size() == 1
-            && first.getSuit() == foundation.get(destPN).get(foundationSize - 1).getSuit()
-            && first.getValue() - 1 == foundation.get(destPN).get(foundationSize - 1).getValue();
+        return numCards == 1 && first == top + 1 && PackedBoard.valueOf(first) > 1;
       }
     } else if (dest == PileType.OPEN) {
-      return cardList.size() == 1 && open.get(destPN).size() == 0;
+      return numCards == 1 && board.openAt(destPN) == PackedBoard.EMPTY;
     } else if (dest == PileType.CASCADE) {
-      int cascadeSize = cascade.get(destPN).size();
-      if (cascadeSize == 0) {
+      int top = board.cascadeTop(destPN);
+      if (top == PackedBoard.EMPTY) {
         return true;
       } else {
-        return !(first.sameColor(cascade.get(destPN).get(cascadeSize - 1)));
+        return stacks(first, top);
       }
     } else {
       throw new IllegalArgumentException("Invalid destination");
     }
   }
-  
+
+  // writes every legal move of the current position to the buffer as packed moves, including
+  // every build that can be moved from each cascade pile
   @Override
-  public void move(PileType sourcePile, int pileNumber, int cardIndex, PileType
-      destination, int destPileNumber) {
-    int emptyCas = 0;
-    int emptyOpen = 0;
-    List<Card> cardList = this.getListWanted(sourcePile, pileNumber, cardIndex);
-    for (int i = 0; i < cascade.size(); i++) {
-      if (cascade.get(i).size() == 0) {
-        emptyCas = emptyCas + 1;
+  public int legalMoves(int[] buffer) throws IllegalArgumentException, IllegalStateException {
+    this.checkMoveBuffer(buffer);
+    int capacity = this.capacity();
+    int count = 0;
+    for (int i = 0; i < board.numCascades(); i++) {
+      int height = board.height(i);
+      if (height == 0) {
+        continue;
+      }
+      count = this.cardMoves(PileType.CASCADE, i, height - 1, board.cascadeTop(i), true, buffer,
+          count);
+      for (int k = 2; k <= Math.min(height, capacity)
+          && stacks(board.cascadeAt(i, height - k + 1), board.cascadeAt(i, height - k)); k++) {
+        int first = board.cascadeAt(i, height - k);
+        for (int d = 0; d < board.numCascades(); d++) {
+          int top = board.cascadeTop(d);
+          if (d != i && (top == PackedBoard.EMPTY || stacks(first, top))) {
+            buffer[count++] = Move.pack(PileType.CASCADE, i, height - k, PileType.CASCADE, d, k);
+          }
+        }
       }
     }
-    for (int i = 0; i < open.size(); i++) {
-      if (open.get(i).size() == 0) {
-        emptyOpen = emptyOpen + 1;
+    for (int i = 0; i < board.numOpen(); i++) {
+      int card = board.openAt(i);
+      if (card != PackedBoard.EMPTY) {
+        count = this.cardMoves(PileType.OPEN, i, 0, card, true, buffer, count);
       }
     }
+    for (int i = 0; i < PackedBoard.NUM_FOUNDATIONS; i++) {
+      int top = board.foundationTop(i);
+      if (top != PackedBoard.EMPTY) {
+        count = this.cardMoves(PileType.FOUNDATION, i, board.foundationSize(i) - 1, top, true,
+            buffer, count);
+      }
+    }
+    return count;
+  }
 
-    boolean validEmptyPile = cardList.size() <= ((emptyOpen + 1) * Math.pow(2, emptyCas));
-    if (sourcePile == PileType.FOUNDATION && validEmptyPile
-        && validDest(cardList, destination, destPileNumber)) {
-      this.moveCards(cardList, destination, destPileNumber);
-      foundation.get(pileNumber).remove(cardIndex);
-    } else if (sourcePile == PileType.OPEN && validEmptyPile
-        && validDest(cardList, destination, destPileNumber)) {
-      this.moveCards(cardList, destination, destPileNumber);
-      open.get(pileNumber).remove(cardIndex);
-    } else if (sourcePile == PileType.CASCADE && validEmptyPile && validCards(pileNumber, cardIndex)
-        && cardList.size() > 0 && validDest(cardList, destination, destPileNumber)) {
-      this.moveCards(cardList, destination, destPileNumber);
-      cascade.get(pileNumber).removeAll(cardList);
-    } else {
-      throw new IllegalArgumentException("Invalid move");
+  // returns the most legal moves a position can have, counting a build of up to a whole suit
+  // from every cascade pile to every other pile
+  @Override
+  public int maxLegalMoves() throws IllegalStateException {
+    int singles = super.maxLegalMoves();
+    int piles = board.numCascades() + board.numOpen() + PackedBoard.NUM_FOUNDATIONS;
+    return singles + PackedBoard.NUM_FOUNDATIONS * piles
+        + board.numCascades() * (PackedBoard.RANKS - 1) * board.numCascades();
+  }
+
+  @Override
+  public void move(PileType sourcePile, int pileNumber, int cardIndex, PileType
+      destination, int destPileNumber) {
+    long started = FreecellMetrics.startTimer();
+    MoveEvent event = new MoveEvent();
+    event.begin();
+    // the reason counted if the move is rejected, advanced as each part of the move is checked
+    Counter rejection = Counter.MOVES_REJECTED_NOT_STARTED;
+    int first;
+    int numCards;
+    try {
+      if (!gameStarted) {
+        throw new IllegalStateException("Game has yet to start");
+      }
+      rejection = Counter.MOVES_REJECTED_SOURCE;
+      // getCardWanted checks that the cards form a build, so nothing is checked twice
+      first = this.getCardWanted(sourcePile, pileNumber, cardIndex);
+      numCards = getSize(sourcePile, pileNumber) - cardIndex;
+      rejection = Counter.MOVES_REJECTED_CAPACITY;
+      if (numCards > this.capacity()) {
+        throw new IllegalArgumentException("Invalid move");
+      }
+      rejection = Counter.MOVES_REJECTED_DESTINATION;
+      if (!validDest(first, numCards, destination, destPileNumber)) {
+        throw new IllegalArgumentException("Invalid move");
+      }
+    } catch (RuntimeException e) {
+      FreecellMetrics.moveRejected(rejection);
+      new MoveRejectedEvent().finish(sourcePile, pileNumber, cardIndex, destination,
+          destPileNumber, e);
+      throw e;
     }
+    this.makeMove(Move.pack(sourcePile, pileNumber, sourcePile == PileType.OPEN ? 0 : cardIndex,
+        destination, destPileNumber, numCards));
+    FreecellMetrics.moveSucceeded(numCards, started);
+    event.finish(sourcePile, pileNumber, destination, destPileNumber, numCards);
   }
 
 }
\ No newline at end of file
@@ -0,0 +1,383 @@
+package cs3500.freecell.model.hw02;
+
+import cs3500.freecell.model.FreecellModelState;
+import cs3500.freecell.model.Move;
+import cs3500.freecell.model.PileType;
+import java.util.Arrays;
+
+/**
+ * Represents the position of a freecell game as a handful of primitive arrays. Every card is
+ * stored as a one byte code (see {@link #codeOf(Card)}), where 0 marks an empty slot. Cascade piles
+ * share one flat array with a fixed number of slots per pile, and each foundation pile is stored
+ * as the code of its top card only, since a foundation pile always holds one suit from the ace up.
+ */
+public final class PackedBoard {
+
+  public static final int EMPTY = 0;
+  public static final int NUM_FOUNDATIONS = 4;
+  public static final int RANKS = 13;
+
+  private final int numCascades;
+  private final int numOpen;
+  private final int stride;
+  private final byte[] cascade;
+  private final byte[] heights;
+  private final byte[] open;
+  private final byte[] foundation;
+  private long hash;
+  private int emptyCascades;
+  private int emptyOpen;
+
+  /**
+   * Constructs an empty board.
+   *
+   * @param numCascades represents the number of cascade piles
+   * @param numOpen     represents the number of open piles
+   * @param deckSize    represents the number of cards that will be dealt onto the board
+   * @throws IllegalArgumentException if any of the sizes are negative
+   */
+  public PackedBoard(int numCascades, int numOpen, int deckSize) {
+    if (numCascades < 1 || numOpen < 0 || deckSize < 0) {
+      throw new IllegalArgumentException("Invalid board size");
+    }
+    this.numCascades = numCascades;
+    this.numOpen = numOpen;
+    // a cascade only ever holds part of its deal plus a descending build of at most 12 cards on
+    // top of it, or a single build from a king when it has been emptied
+    this.stride = Math.max((deckSize + numCascades - 1) / numCascades + RANKS - 1, RANKS);
+    this.cascade = new byte[numCascades * stride];
+    this.heights = new byte[numCascades];
+    this.open = new byte[numOpen];
+    this.foundation = new byte[NUM_FOUNDATIONS];
+    this.emptyCascades = numCascades;
+    this.emptyOpen = numOpen;
+  }
+
+  /**
+   * Constructs a board holding the same position as the given board.
+   *
+   * @param other represents the board to copy
+   */
+  public PackedBoard(PackedBoard other) {
+    this.numCascades = other.numCascades;
+    this.numOpen = other.numOpen;
+    this.stride = other.stride;
+    this.cascade = other.cascade.clone();
+    this.heights = other.heights.clone();
+    this.open = other.open.clone();
+    this.foundation = other.foundation.clone();
+    this.hash = other.hash;
+    this.emptyCascades = other.emptyCascades;
+    this.emptyOpen = other.emptyOpen;
+  }
+
+  /**
+   * Returns a board holding the position shown by the given game state. The position of a
+   * {@link ConcurrentFreecellModel} is read from one snapshot, so a move made while the board is
+   * built cannot mix two positions.
+   *
+   * @param state represents a started game
+   * @return the board
+   * @throws IllegalStateException if the game has not started
+   */
+  public static PackedBoard of(FreecellModelState<Card> state) {
+    if (state instanceof ConcurrentFreecellModel) {
+      state = ((ConcurrentFreecellModel) state).snapshot();
+    }
+    int numCascades = state.getNumCascadePiles();
+    int numOpen = state.getNumOpenPiles();
+    if (numCascades == -1) {
+      throw new IllegalStateException("Game has not yet started");
+    }
+    PackedBoard board = new PackedBoard(numCascades, numOpen, Card.NUM_CARDS);
+    for (int i = 0; i < numCascades; i++) {
+      int height = state.getNumCardsInCascadePile(i);
+      for (int k = 0; k < height; k++) {
+        board.push(i, codeOf(state.getCascadeCardAt(i, k)));
+      }
+    }
+    for (int i = 0; i < numOpen; i++) {
+      Card card = state.getOpenCardAt(i);
+      board.setOpen(i, card == null ? EMPTY : codeOf(card));
+    }
+    for (int i = 0; i < NUM_FOUNDATIONS; i++) {
+      int size = state.getNumCardsInFoundationPile(i);
+      board.setFoundation(i, size == 0 ? EMPTY : codeOf(state.getFoundationCardAt(i, size - 1)));
+    }
+    return board;
+  }
+
+  /**
+   * Returns the code of the given card, between 1 and 52.
+   *
+   * @param card represents the card to encode
+   * @return the code of the card
+   */
+  public static int codeOf(Card card) {
+    return card.ordinal() + 1;
+  }
+
+  /**
+   * Returns the interned card with the given code.
+   *
+   * @param code represents the code of the card, between 1 and 52
+   * @return the card
+   */
+  public static Card cardOf(int code) {
+    return Card.fromOrdinal(code - 1);
+  }
+
+  /**
+   * Returns the code of the card with the given value and suit ordinal.
+   *
+   * @param value represents the value of the card, between 1 and 13
+   * @param suit  represents the ordinal of the suit of the card
+   * @return the code of the card
+   */
+  public static int codeOf(int value, int suit) {
+    return suit * RANKS + value;
+  }
+
+  // returns the value of the card with the given code
+  public static int valueOf(int code) {
+    return (code - 1) % RANKS + 1;
+  }
+
+  // returns the ordinal of the suit of the card with the given code
+  public static int suitOf(int code) {
+    return (code - 1) / RANKS;
+  }
+
+  // returns true if the card with the given code is a diamond or a heart
+  public static boolean isRed(int code) {
+    int suit = suitOf(code);
+    return suit == Suit.DIAMOND.ordinal() || suit == Suit.HEART.ordinal();
+  }
+
+  // returns the number of cascade piles
+  public int numCascades() {
+    return this.numCascades;
+  }
+
+  // returns the number of open piles
+  public int numOpen() {
+    return this.numOpen;
+  }
+
+  // returns the number of cascade piles with no cards, kept up to date by every change
+  public int emptyCascades() {
+    return this.emptyCascades;
+  }
+
+  // returns the number of open piles with no card, kept up to date by every change
+  public int emptyOpen() {
+    return this.emptyOpen;
+  }
+
+  // returns the number of cards in the given cascade pile
+  public int height(int pile) {
+    return this.heights[pile];
+  }
+
+  // returns the code of the card at the given index of the given cascade pile
+  public int cascadeAt(int pile, int index) {
+    return this.cascade[pile * stride + index];
+  }
+
+  // returns the code of the last card in the given cascade pile, or EMPTY
+  public int cascadeTop(int pile) {
+    int height = this.heights[pile];
+    return height == 0 ? EMPTY : this.cascade[pile * stride + height - 1];
+  }
+
+  // places the card with the given code on top of the given cascade pile
+  public void push(int pile, int code) {
+    int height = this.heights[pile];
+    if (height == stride) {
+      throw new IllegalStateException("Cascade pile is full");
+    }
+    if (height == 0) {
+      this.emptyCascades--;
+    }
+    this.cascade[pile * stride + height] = (byte) code;
+    this.heights[pile] = (byte) (height + 1);
+    this.hash ^= Zobrist.cascadeKey(pile, height, code);
+  }
+
+  // removes and returns the code of the last card in the given cascade pile
+  public int pop(int pile) {
+    int slot = pile * stride + this.heights[pile] - 1;
+    int code = this.cascade[slot];
+    this.cascade[slot] = EMPTY;
+    this.heights[pile]--;
+    if (this.heights[pile] == 0) {
+      this.emptyCascades++;
+    }
+    this.hash ^= Zobrist.cascadeKey(pile, this.heights[pile], code);
+    return code;
+  }
+
+  // returns the code of the card in the given open pile, or EMPTY
+  public int openAt(int pile) {
+    return this.open[pile];
+  }
+
+  // sets the card in the given open pile to the given code, or clears it with EMPTY
+  public void setOpen(int pile, int code) {
+    int old = this.open[pile];
+    if (old != EMPTY) {
+      this.hash ^= Zobrist.openKey(pile, old);
+      this.emptyOpen++;
+    }
+    if (code != EMPTY) {
+      this.hash ^= Zobrist.openKey(pile, code);
+      this.emptyOpen--;
+    }
+    this.open[pile] = (byte) code;
+  }
+
+  // returns the code of the last card in the given foundation pile, or EMPTY
+  public int foundationTop(int pile) {
+    return this.foundation[pile];
+  }
+
+  // returns the number of cards in the given foundation pile
+  public int foundationSize(int pile) {
+    int top = this.foundation[pile];
+    return top == EMPTY ? 0 : valueOf(top);
+  }
+
+  // sets the last card in the given foundation pile to the given code, or clears it with EMPTY
+  public void setFoundation(int pile, int code) {
+    int old = this.foundation[pile];
+    if (old != EMPTY) {
+      this.hash ^= Zobrist.foundationKey(pile, old);
+    }
+    if (code != EMPTY) {
+      this.hash ^= Zobrist.foundationKey(pile, code);
+    }
+    this.foundation[pile] = (byte) code;
+  }
+
+  /**
+   * Makes the given packed move without checking that it follows any rules.
+   *
+   * @param move represents the packed move, see {@link Move#pack}
+   */
+  public void apply(int move) {
+    this.transfer(Move.source(move), Move.pileNumber(move), Move.destination(move),
+        Move.destPileNumber(move), Move.count(move));
+  }
+
+  /**
+   * Takes back the given packed move, which must be the last move made on this board.
+   *
+   * @param move represents the packed move, see {@link Move#pack}
+   */
+  public void revert(int move) {
+    this.transfer(Move.destination(move), Move.destPileNumber(move), Move.source(move),
+        Move.pileNumber(move), Move.count(move));
+  }
+
+  // moves the given number of cards from the top of one pile to the top of another, keeping their
+  // order
+  private void transfer(PileType source, int from, PileType destination, int to, int count) {
+    if (source == PileType.CASCADE && destination == PileType.CASCADE) {
+      this.moveRun(from, to, count);
+    } else {
+      this.place(destination, to, this.take(source, from));
+    }
+  }
+
+  // moves the given number of cards from the top of one cascade pile to the top of another by
+  // copying them across and cutting them off the first pile
+  private void moveRun(int from, int to, int count) {
+    int fromHeight = this.heights[from];
+    int toHeight = this.heights[to];
+    if (toHeight + count > stride) {
+      throw new IllegalStateException("Cascade pile is full");
+    }
+    int start = from * stride + fromHeight - count;
+    System.arraycopy(this.cascade, start, this.cascade, to * stride + toHeight, count);
+    for (int i = 0; i < count; i++) {
+      int code = this.cascade[start + i];
+      this.hash ^= Zobrist.cascadeKey(from, fromHeight - count + i, code)
+          ^ Zobrist.cascadeKey(to, toHeight + i, code);
+    }
+    Arrays.fill(this.cascade, start, start + count, (byte) EMPTY);
+    this.heights[from] = (byte) (fromHeight - count);
+    this.heights[to] = (byte) (toHeight + count);
+    if (fromHeight == count) {
+      this.emptyCascades++;
+    }
+    if (toHeight == 0) {
+      this.emptyCascades--;
+    }
+  }
+
+  // removes and returns the code of the last card of the given pile
+  private int take(PileType pile, int pileNumber) {
+    int code;
+    switch (pile) {
+      case OPEN:
+        code = this.open[pileNumber];
+        this.setOpen(pileNumber, EMPTY);
+        return code;
+      case FOUNDATION:
+        code = this.foundation[pileNumber];
+        this.setFoundation(pileNumber, valueOf(code) == 1 ? EMPTY : code - 1);
+        return code;
+      default:
+        return this.pop(pileNumber);
+    }
+  }
+
+  // places the card with the given code on top of the given pile
+  private void place(PileType pile, int pileNumber, int code) {
+    switch (pile) {
+      case OPEN:
+        this.setOpen(pileNumber, code);
+        break;
+      case FOUNDATION:
+        this.setFoundation(pileNumber, code);
+        break;
+      default:
+        this.push(pileNumber, code);
+    }
+  }
+
+  // returns the Zobrist hash of the position, kept up to date by every change to the board
+  public long hash() {
+    return this.hash;
+  }
+
+  // returns true if every foundation pile holds a complete suit
+  public boolean foundationsComplete() {
+    for (int i = 0; i < NUM_FOUNDATIONS; i++) {
+      if (foundationSize(i) != RANKS) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (this == other) {
+      return true;
+    }
+    if (!(other instanceof PackedBoard)) {
+      return false;
+    }
+    PackedBoard that = (PackedBoard) other;
+    return this.hash == that.hash && this.numCascades == that.numCascades
+        && this.stride == that.stride && Arrays.equals(this.heights, that.heights)
+        && Arrays.equals(this.cascade, that.cascade) && Arrays.equals(this.open, that.open)
+        && Arrays.equals(this.foundation, that.foundation);
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (this.hash ^ (this.hash >>> 32));
+  }
+}
@@ -0,0 +1,208 @@
+package cs3500.freecell.model.hw02;
+
+import cs3500.freecell.model.FreecellModelState;
+import cs3500.freecell.model.PileType;
+
+/**
+ * Represents the state of a game at one moment, which never changes once taken. Any number of
+ * threads may read a snapshot at once without locking, and every read of one snapshot sees the
+ * same position. {@link ConcurrentFreecellModel} publishes one after each change to its game.
+ */
+public final class PositionSnapshot implements FreecellModelState<Card> {
+
+  private final long version;
+  private final PackedBoard board;
+  // INVARIANT: board is null if the game has not started, and is never changed
+  private final boolean canUndo;
+  private final boolean canRedo;
+  private final long gameVersion;
+  private final long[] pileVersions;
+  // INVARIANT: pileVersions holds the version of the snapshot in which each pile last changed,
+  // foundation piles first, then open piles, then cascade piles, and is never changed
+
+  /**
+   * Constructs a snapshot of the given position.
+   *
+   * @param version represents the number of changes made to the game before this snapshot
+   * @param board   represents a copy of the position that no one else holds, or null if the
+   *                game has not started
+   * @param canUndo      true if a move could be undone in this position
+   * @param canRedo      true if a move could be redone in this position
+   * @param gameVersion  represents the version of the snapshot in which the game was started
+   * @param pileVersions represents the version of the snapshot in which each pile last changed,
+   *                     in a copy that no one else holds
+   */
+  PositionSnapshot(long version, PackedBoard board, boolean canUndo, boolean canRedo,
+      long gameVersion, long[] pileVersions) {
+    this.version = version;
+    this.board = board;
+    this.canUndo = canUndo;
+    this.canRedo = canRedo;
+    this.gameVersion = gameVersion;
+    this.pileVersions = pileVersions;
+  }
+
+  // returns the number of changes made to the game before this snapshot was taken
+  public long getVersion() {
+    return this.version;
+  }
+
+  // returns the version of the snapshot in which the game was last started or restored
+  public long getGameVersion() {
+    return this.gameVersion;
+  }
+
+  /**
+   * Returns the version of the snapshot in which the given pile last changed. A reader that saw
+   * the pile in a snapshot of that version or later, of the same game, knows it has not changed.
+   *
+   * @param type       the type of the pile
+   * @param pileNumber the index of the pile, starting at 0
+   * @return the version in which the pile last changed
+   * @throws IllegalArgumentException if the pile does not exist
+   * @throws IllegalStateException    if the game had not started
+   */
+  public long getPileVersion(PileType type, int pileNumber)
+      throws IllegalArgumentException, IllegalStateException {
+    this.checkStarted();
+    int numOpen = this.board.numOpen();
+    int piles = type == PileType.FOUNDATION ? PackedBoard.NUM_FOUNDATIONS
+        : type == PileType.OPEN ? numOpen : this.board.numCascades();
+    if (pileNumber < 0 || pileNumber >= piles) {
+      throw new IllegalArgumentException("Pile index is out of range");
+    }
+    switch (type) {
+      case FOUNDATION:
+        return this.pileVersions[pileNumber];
+      case OPEN:
+        return this.pileVersions[PackedBoard.NUM_FOUNDATIONS + pileNumber];
+      default:
+        return this.pileVersions[PackedBoard.NUM_FOUNDATIONS + numOpen + pileNumber];
+    }
+  }
+
+  // returns true if a move could be undone in this position
+  public boolean canUndo() {
+    return this.canUndo;
+  }
+
+  // returns true if a move could be redone in this position
+  public boolean canRedo() {
+    return this.canRedo;
+  }
+
+  /**
+   * Returns the Zobrist hash of the position, equal to the hash the model had when the snapshot
+   * was taken.
+   *
+   * @return the hash of the position
+   * @throws IllegalStateException if the game had not started
+   */
+  public long getPositionHash() throws IllegalStateException {
+    this.checkStarted();
+    return this.board.hash();
+  }
+
+  // returns the position, or null if the game had not started, which must not be changed
+  PackedBoard board() {
+    return this.board;
+  }
+
+  // returns true if the game had started and every foundation pile was full
+  public boolean isGameOver() {
+    return this.board != null && this.board.foundationsComplete();
+  }
+
+  // throws an exception if the game had not started when the snapshot was taken
+  private void checkStarted() {
+    if (this.board == null) {
+      throw new IllegalStateException("Game has not yet started");
+    }
+  }
+
+  // returns the number of cards in the given foundation pile
+  @Override
+  public int getNumCardsInFoundationPile(int index)
+      throws IllegalArgumentException, IllegalStateException {
+    this.checkStarted();
+    if (index < 0 || index >= PackedBoard.NUM_FOUNDATIONS) {
+      throw new IllegalArgumentException("Index must be between 0 and 3");
+    }
+    return this.board.foundationSize(index);
+  }
+
+  // returns the number of cascade piles, or -1 if the game had not started
+  @Override
+  public int getNumCascadePiles() {
+    return this.board == null ? -1 : this.board.numCascades();
+  }
+
+  // returns the number of cards in the given cascade pile
+  @Override
+  public int getNumCardsInCascadePile(int index)
+      throws IllegalArgumentException, IllegalStateException {
+    this.checkStarted();
+    if (index < 0 || index >= this.board.numCascades()) {
+      throw new IllegalArgumentException("Index is out of range");
+    }
+    return this.board.height(index);
+  }
+
+  // returns the number of cards in the given open pile
+  @Override
+  public int getNumCardsInOpenPile(int index)
+      throws IllegalArgumentException, IllegalStateException {
+    this.checkStarted();
+    if (index < 0 || index >= this.board.numOpen()) {
+      throw new IllegalArgumentException("Index is out of range");
+    }
+    return this.board.openAt(index) == PackedBoard.EMPTY ? 0 : 1;
+  }
+
+  // returns the number of open piles, or -1 if the game had not started
+  @Override
+  public int getNumOpenPiles() {
+    return this.board == null ? -1 : this.board.numOpen();
+  }
+
+  // returns the card at the given index of the given foundation pile
+  @Override
+  public Card getFoundationCardAt(int pileIndex, int cardIndex)
+      throws IllegalArgumentException, IllegalStateException {
+    this.checkStarted();
+    if (pileIndex < 0 || pileIndex >= PackedBoard.NUM_FOUNDATIONS) {
+      throw new IllegalArgumentException("Pile index is out of range");
+    }
+    if (cardIndex < 0 || cardIndex >= this.board.foundationSize(pileIndex)) {
+      throw new IllegalArgumentException("Card index is out of range");
+    }
+    int top = this.board.foundationTop(pileIndex);
+    return PackedBoard.cardOf(top - PackedBoard.valueOf(top) + cardIndex + 1);
+  }
+
+  // returns the card at the given index of the given cascade pile
+  @Override
+  public Card getCascadeCardAt(int pileIndex, int cardIndex)
+      throws IllegalArgumentException, IllegalStateException {
+    this.checkStarted();
+    if (pileIndex < 0 || pileIndex >= this.board.numCascades()) {
+      throw new IllegalArgumentException("Pile index is out of range");
+    }
+    if (cardIndex < 0 || cardIndex >= this.board.height(pileIndex)) {
+      throw new IllegalArgumentException("Card index is out of range");
+    }
+    return PackedBoard.cardOf(this.board.cascadeAt(pileIndex, cardIndex));
+  }
+
+  // returns the card in the given open pile, or null if it is empty
+  @Override
+  public Card getOpenCardAt(int pileIndex)
+      throws IllegalArgumentException, IllegalStateException {
+    this.checkStarted();
+    if (pileIndex < 0 || pileIndex >= this.board.numOpen()) {
+      throw new IllegalArgumentException("Index is out of range");
+    }
+    int code = this.board.openAt(pileIndex);
+    return code == PackedBoard.EMPTY ? null : PackedBoard.cardOf(code);
+  }
+}
@@ -1,53 +1,133 @@
 package cs3500.freecell.model.hw02;
 
+import cs3500.freecell.metrics.Counter;
+import cs3500.freecell.metrics.FreecellMetrics;
+import cs3500.freecell.metrics.GameOverEvent;
+import cs3500.freecell.metrics.GameStartedEvent;
+import cs3500.freecell.metrics.MoveEvent;
+import cs3500.freecell.metrics.MoveRejectedEvent;
 import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.FreecellModelCreator;
+import cs3500.freecell.model.FreecellModelListener;
+import cs3500.freecell.model.Move;
 import cs3500.freecell.model.PileType;
-import java.util.List;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * Represents a model that contains the rules and workings of a freecell game.
  */
 public class SimpleFreecellModel implements FreecellModel<Card> {
 
-  protected ArrayList<List<Card>> open;
-  protected ArrayList<List<Card>> cascade;
-  protected ArrayList<List<Card>> foundation;
+  private static final List<Card> DECK;
+  private static final long FULL_DECK = (1L << Card.NUM_CARDS) - 1;
+  private static final FreecellModelListener[] NO_LISTENERS = new FreecellModelListener[0];
+  private static final int[] NO_MOVES = new int[0];
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  static {
+    Card[] cards = new Card[Card.NUM_CARDS];
+    for (int i = 0; i < cards.length; i++) {
+      cards[i] = Card.fromOrdinal(i);
+    }
+    DECK = Collections.unmodifiableList(Arrays.asList(cards));
+  }
+
+  protected PackedBoard board;
+  // INVARIANT: board is non null once the game has started
   protected boolean gameStarted;
+  private int[] deal;
+  // INVARIANT: deal is only null in a fork that has not started a game of its own
+  private long shuffleSeed;
+  // INVARIANT: shuffleSeed is the state of the SplitMix64 sequence shuffles draw from, the same
+  // sequence a SplittableRandom made with the seed of this model would give
+  private int[] history;
+  // INVARIANT: history holds the packed moves made since the game started, in order
+  private int numMoves;
+  // INVARIANT: the first numMoves moves of history are in effect
+  private int historyEnd;
+  // INVARIANT: the moves of history from numMoves up to historyEnd can be redone
+  private FreecellModelListener[] listeners;
+  // INVARIANT: listeners is never null, and is replaced rather than changed when listeners are
+  // added or removed
 
   /**
-   * Constructs a Simple Freecell Model.
+   * Constructs a Simple Freecell Model that shuffles differently every run.
    */
 
   public SimpleFreecellModel() {
-    this.open = new ArrayList<List<Card>>();
-    this.cascade = new ArrayList<List<Card>>();
-    this.foundation = new ArrayList<List<Card>>();
+    this(new SplittableRandom().nextLong());
+  }
+
+  /**
+   * Constructs a Simple Freecell Model whose shuffles are determined by the given seed, so that a
+   * sequence of shuffled games can be replayed.
+   *
+   * @param seed represents the seed used to shuffle decks
+   */
+  public SimpleFreecellModel(long seed) {
+    this.board = null;
     this.gameStarted = false;
+    this.deal = new int[Card.NUM_CARDS];
+    this.shuffleSeed = seed;
+    this.history = new int[64];
+    this.numMoves = 0;
+    this.historyEnd = 0;
+    this.listeners = NO_LISTENERS;
+  }
 
+  /**
+   * Constructs a model holding a copy of the position of the given model, for {@link #fork()}.
+   * The copy takes one array copy per kind of pile and keeps the counts of empty piles, but
+   * starts with no moves to undo or redo and no listeners. The given model is only read.
+   *
+   * @param other represents the model to copy
+   */
+  protected SimpleFreecellModel(SimpleFreecellModel other) {
+    this.board = other.gameStarted ? new PackedBoard(other.board) : null;
+    this.gameStarted = other.gameStarted;
+    this.deal = null;
+    this.shuffleSeed = other.shuffleSeed;
+    this.history = NO_MOVES;
+    this.numMoves = 0;
+    this.historyEnd = 0;
+    this.listeners = NO_LISTENERS;
+  }
+
+  /**
+   * Returns an independent copy of this model, holding the same position and playing by the same
+   * rules, so that a line of play can be tried without replaying the game. Moves made on either
+   * model do not affect the other. The copy has no moves to undo or redo and no listeners. It
+   * continues the random sequence of this model from where this model is, so the next shuffled
+   * games of the copy and of this model are the same. Forking only reads this model, so it does
+   * not change the shuffles of this model. Models extending this one override this method to
+   * return their own type.
+   *
+   * @return the copy
+   */
+  public SimpleFreecellModel fork() {
+    return new SimpleFreecellModel(this);
   }
 
-  // returns a new deck of playing cards
+  // returns the rules this model plays by
+  @Override
+  public FreecellModelCreator.GameType getGameType() {
+    return FreecellModelCreator.GameType.SINGLEMOVE;
+  }
+
+  // returns the shared, unmodifiable deck of playing cards
   @Override
   public List<Card> getDeck() {
-    List<Card> deck = new ArrayList<Card>();
-    for (Suit i : Suit.values()) {
-      for (int k = 1; k <= 13; k++) {
-        deck.add(new Card(k, i));
-      }
-    }
-    return deck;
+    return DECK;
   }
 
-  // deals the cascade piles with the given deck into the amount of piles specified
-  private void dealCascade(int pileAmount, List<Card> deck) {
-    for (int k = 0; k < pileAmount; k++) {
-      this.cascade.add(new ArrayList<Card>());
-    }
+  // deals the cascade piles with the card codes in deal into the amount of piles specified
+  private void dealCascade(int pileAmount) {
     int cascadePile = 0;
-    for (Card card : deck) {
-      this.cascade.get(cascadePile).add(card);
+    for (int code : this.deal) {
+      this.board.push(cascadePile, code);
       if (cascadePile == pileAmount - 1) {
         cascadePile = 0;
       } else {
@@ -57,30 +137,48 @@ public class SimpleFreecellModel implements FreecellModel<Card> {
   }
 
 
-  // returns true if the given deck does have duplicate cards
-  private boolean areDuplicates(List<Card> deck) {
-    boolean duplicates = false;
-    for (int i = 0; i < deck.size(); i++) {
-      for (int k = i + 1; k < deck.size(); k++) {
-        if (deck.get(i).equals(deck.get(k))) {
-          duplicates = true;
-          break;
-        }
+  // copies the codes of the cards in the given deck into deal, checking in one pass that the deck
+  // holds every card exactly once
+  private void readDeck(List<Card> deck) {
+    if (deck == null) {
+      throw new IllegalArgumentException("Invalid deck");
+    }
+    if (this.deal == null) {
+      this.deal = new int[Card.NUM_CARDS];
+    }
+    long seen = 0;
+    long duplicates = 0;
+    int i = 0;
+    for (Card c : deck) {
+      if (c == null) {
+        throw new IllegalArgumentException("Invalid deck: deck contains a null card");
+      }
+      long bit = 1L << c.ordinal();
+      duplicates |= seen & bit;
+      seen |= bit;
+      if (i < this.deal.length) {
+        this.deal[i] = c.ordinal() + 1;
       }
+      i++;
+    }
+    long missing = ~seen & FULL_DECK;
+    if (duplicates != 0 || missing != 0 || i != Card.NUM_CARDS) {
+      StringBuilder message = new StringBuilder("Invalid deck of ").append(i).append(" cards");
+      appendCards(message, "duplicated", duplicates);
+      appendCards(message, "missing", missing);
+      throw new IllegalArgumentException(message.toString());
     }
-    return duplicates;
   }
 
-  // returns false if the deck contains an invalid card
-  private boolean validCardDeck(List<Card> deck) {
-    boolean validity = true;
-    for (Card c : deck) {
-      if (!c.cardValid()) {
-        validity = false;
-        break;
-      }
+  // appends a list of the cards whose ordinals are set in the given mask, if there are any
+  private static void appendCards(StringBuilder message, String label, long mask) {
+    if (mask == 0) {
+      return;
+    }
+    message.append("; ").append(label).append(':');
+    for (long rest = mask; rest != 0; rest &= rest - 1) {
+      message.append(' ').append(Card.fromOrdinal(Long.numberOfTrailingZeros(rest)));
     }
-    return validity;
   }
 
   // starts a game of Freecell by dealing out cascade piles, initializing the number of open piles,
@@ -88,92 +186,198 @@ public class SimpleFreecellModel implements FreecellModel<Card> {
   @Override
   public void startGame(List<Card> deck, int numCascadePiles, int numOpenPiles, boolean shuffle)
       throws IllegalArgumentException {
-    if (deck == null || deck.size() != 52 || areDuplicates(deck) || !validCardDeck(deck)) {
-      throw new IllegalArgumentException("Invalid deck");
-    }
+    GameStartedEvent event = new GameStartedEvent();
+    event.begin();
+    this.readDeck(deck);
     if (numCascadePiles < 4) {
       throw new IllegalArgumentException("There must be over 4 cascade piles");
     }
     if (numOpenPiles < 1) {
       throw new IllegalArgumentException("There must be over 1 open pile");
     }
-    if (this.areDuplicates(deck)) {
-      throw new IllegalArgumentException("Deck contains duplicate cards");
-    }
-    if (!this.validCardDeck(deck)) {
-      throw new IllegalArgumentException("Invalid card in deck");
-    }
-    if (gameStarted) {
-      this.open = new ArrayList<List<Card>>();
-      this.foundation = new ArrayList<List<Card>>();
-      this.cascade = new ArrayList<List<Card>>();
+    if (numCascadePiles > Move.MAX_PILES || numOpenPiles > Move.MAX_PILES) {
+      throw new IllegalArgumentException("There can be at most " + Move.MAX_PILES + " piles");
     }
     if (shuffle) {
-      Collections.shuffle(deck);
-    }
-    this.dealCascade(numCascadePiles, deck);
-    for (int i = 0; i < numOpenPiles; i++) {
-      this.open.add(new ArrayList<Card>());
+      this.shuffleDeal();
     }
-    for (int k = 0; k < 4; k++) {
-      this.foundation.add(new ArrayList<Card>());
+    this.board = new PackedBoard(numCascadePiles, numOpenPiles, Card.NUM_CARDS);
+    this.dealCascade(numCascadePiles);
+    this.numMoves = 0;
+    this.historyEnd = 0;
+    this.gameStarted = true;
+    FreecellMetrics.increment(Counter.GAMES_STARTED);
+    for (FreecellModelListener listener : this.listeners) {
+      listener.gameStarted(numCascadePiles, numOpenPiles);
     }
+    event.finish(Card.NUM_CARDS, numCascadePiles, numOpenPiles, shuffle,
+        this.getGameType() == FreecellModelCreator.GameType.MULTIMOVE);
+
+  }
+
+  // replaces the game with the given position, forgetting every move that could be undone or
+  // redone
+  void restore(PackedBoard position) {
+    this.board = position;
     this.gameStarted = true;
+    this.numMoves = 0;
+    this.historyEnd = 0;
+    for (FreecellModelListener listener : this.listeners) {
+      listener.positionRestored(position.numCascades(), position.numOpen());
+    }
+  }
+
+  // shuffles the card codes in deal in place, leaving the given deck untouched
+  private void shuffleDeal() {
+    for (int i = this.deal.length - 1; i > 0; i--) {
+      int k = this.nextShuffleIndex(i + 1);
+      int code = this.deal[i];
+      this.deal[i] = this.deal[k];
+      this.deal[k] = code;
+    }
+  }
 
+  // returns a random index below the given bound, drawn the way SplittableRandom.nextInt does so
+  // that seeded models deal the same games they always have
+  private int nextShuffleIndex(int bound) {
+    int r = this.nextShuffleBits();
+    int m = bound - 1;
+    if ((bound & m) == 0) {
+      return r & m;
+    }
+    // draws again whenever the draw falls in the incomplete last block, so no index is favored
+    int u = r >>> 1;
+    while (u + m - (r = u % bound) < 0) {
+      u = this.nextShuffleBits() >>> 1;
+    }
+    return r;
   }
 
-  // returns a card that is desired
-  private Card cardFromSource(PileType source, int pileNumber, int cardIndex) {
-    Card cardWanted = null;
+  // advances the random sequence and returns its next 32 random bits
+  private int nextShuffleBits() {
+    long z = this.shuffleSeed += GOLDEN_GAMMA;
+    z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+    return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+  }
+
+  // returns the code of the card that is desired, or throws an exception if it cannot be moved
+  private int cardFromSource(PileType source, int pileNumber, int cardIndex) {
     switch (source) {
       case FOUNDATION:
         throw new IllegalArgumentException("Cannot move cards from foundation pile.");
       case CASCADE:
-        if (cardIndex != this.cascade.get(pileNumber).size() - 1) {
+        this.checkPile(source, pileNumber);
+        if (cardIndex < 0 || cardIndex != this.board.height(pileNumber) - 1) {
           throw new IllegalArgumentException("Can only move last card in a cascade pile");
-        } else {
-          cardWanted = this.getCascadeCardAt(pileNumber, cardIndex);
         }
-        break;
+        return this.board.cascadeTop(pileNumber);
+      case OPEN:
+        this.checkPile(source, pileNumber);
+        if (this.board.openAt(pileNumber) == PackedBoard.EMPTY) {
+          throw new IllegalArgumentException("Open pile is empty");
+        }
+        return this.board.openAt(pileNumber);
+      default:
+        throw new IllegalArgumentException("Invalid pile type");
+    }
+  }
+
+  // throws an exception if the given pile does not exist
+  protected void checkPile(PileType pile, int pileNumber) {
+    int piles;
+    switch (pile) {
       case OPEN:
-        cardWanted = this.getOpenCardAt(pileNumber);
+        piles = this.board.numOpen();
+        break;
+      case CASCADE:
+        piles = this.board.numCascades();
+        break;
+      case FOUNDATION:
+        piles = PackedBoard.NUM_FOUNDATIONS;
         break;
       default:
-        cardWanted = null;
+        throw new IllegalArgumentException("Invalid pile type");
+    }
+    if (pileNumber < 0 || pileNumber >= piles) {
+      throw new IllegalArgumentException("Pile index is out of range");
     }
-    return cardWanted;
   }
 
   // returns true if a card can be placed in a cascade pile
-  private boolean cascadeValid(Card toMove, int pileNumber) {
-    Card before = this.getCascadeCardAt(pileNumber, cascade.get(pileNumber).size() - 1);
-    return !toMove.sameColor(before) && (before.getValue() - toMove.getValue() == 1);
+  private boolean cascadeValid(int toMove, int pileNumber) {
+    int before = this.board.cascadeTop(pileNumber);
+    if (before == PackedBoard.EMPTY) {
+      throw new IllegalArgumentException("Card index is out of range");
+    }
+    return PackedBoard.isRed(toMove) != PackedBoard.isRed(before)
+        && (PackedBoard.valueOf(before) - PackedBoard.valueOf(toMove) == 1);
   }
 
-  // returns the index of foundation pile based on a given card
-  private boolean foundationValid(Card card, int pile) {
-    if (foundation.get(pile).size() == 0 && card.value == 1) {
-      return true;
+  // returns true if a card can be placed in the given foundation pile
+  private boolean foundationValid(int card, int pile) {
+    int top = this.board.foundationTop(pile);
+    if (top == PackedBoard.EMPTY) {
+      return PackedBoard.valueOf(card) == 1;
     }
-    if (card.value > 1) {
-      return (foundation.get(pile).size() + 1 == card.value && (
-          foundation.get(pile).get(card.value - 2).value == card.value - 1));
-    } else {
-      return false;
+    return card == top + 1 && PackedBoard.valueOf(card) > 1;
+  }
+
+  /**
+   * Makes the given packed move, which must already have been checked, and records it so that it
+   * can be undone. Making a move forgets every move that could have been redone.
+   *
+   * @param move represents the packed move
+   */
+  protected void makeMove(int move) {
+    this.board.apply(move);
+    if (this.numMoves == this.history.length) {
+      this.history = Arrays.copyOf(this.history, Math.max(this.history.length * 2, 64));
+    }
+    this.history[this.numMoves++] = move;
+    this.historyEnd = this.numMoves;
+    this.fireMove(move, false);
+    if (Move.destination(move) == PileType.FOUNDATION && this.board.foundationsComplete()) {
+      FreecellMetrics.increment(Counter.GAMES_COMPLETED);
+      GameOverEvent.emit(GameOverEvent.WON, this);
     }
   }
 
-  // removes the given card from the pile type given
-  private void removeFrom(Card card, PileType pile, int pileNumber) {
-    switch (pile) {
-      case OPEN:
-        open.get(pileNumber).remove(card);
-        break;
-      case CASCADE:
-        cascade.get(pileNumber).remove(card);
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid pile type");
+  // tells every listener which piles the given move changed and that it was made or taken back
+  private void fireMove(int move, boolean undone) {
+    int moved = undone ? -Move.count(move) : Move.count(move);
+    for (FreecellModelListener listener : this.listeners) {
+      listener.pileChanged(Move.source(move), Move.pileNumber(move), -moved);
+      listener.pileChanged(Move.destination(move), Move.destPileNumber(move), moved);
+      if (undone) {
+        listener.moveUndone(move);
+      } else {
+        listener.moveCompleted(move);
+      }
+    }
+  }
+
+  // adds a listener, replacing the array so that a listener may add another while being told
+  @Override
+  public void addListener(FreecellModelListener listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener cannot be null");
+    }
+    FreecellModelListener[] added = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+    added[this.listeners.length] = listener;
+    this.listeners = added;
+  }
+
+  // removes the first registration of the given listener, if there is one
+  @Override
+  public void removeListener(FreecellModelListener listener) {
+    for (int i = 0; i < this.listeners.length; i++) {
+      if (this.listeners[i] == listener) {
+        FreecellModelListener[] removed = new FreecellModelListener[this.listeners.length - 1];
+        System.arraycopy(this.listeners, 0, removed, 0, i);
+        System.arraycopy(this.listeners, i + 1, removed, i, removed.length - i);
+        this.listeners = removed.length == 0 ? NO_LISTENERS : removed;
+        return;
+      }
     }
   }
 
@@ -182,43 +386,248 @@ public class SimpleFreecellModel implements FreecellModel<Card> {
   public void move(PileType source, int pileNumber, int cardIndex, PileType destination,
       int destPileNumber)
       throws IllegalArgumentException, IllegalStateException {
-    if (!gameStarted) {
-      throw new IllegalStateException("Game has yet to start");
+    long started = FreecellMetrics.startTimer();
+    MoveEvent event = new MoveEvent();
+    event.begin();
+    // the reason counted if the move is rejected, advanced as each part of the move is checked
+    Counter rejection = Counter.MOVES_REJECTED_NOT_STARTED;
+    try {
+      if (!gameStarted) {
+        throw new IllegalStateException("Game has yet to start");
+      }
+      rejection = Counter.MOVES_REJECTED_SOURCE;
+      int toMove = this.cardFromSource(source, pileNumber, cardIndex);
+      rejection = Counter.MOVES_REJECTED_DESTINATION;
+      this.checkPile(destination, destPileNumber);
+      switch (destination) {
+        case OPEN:
+          if (this.board.openAt(destPileNumber) != PackedBoard.EMPTY) {
+            throw new IllegalArgumentException("Open pile is full");
+          }
+          break;
+        case CASCADE:
+          if (!this.cascadeValid(toMove, destPileNumber)) {
+            throw new IllegalArgumentException("Move is not valid");
+          }
+          break;
+        case FOUNDATION:
+          if (!this.foundationValid(toMove, destPileNumber)) {
+            throw new IllegalArgumentException("Move is not valid");
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("Invalid pile type");
+      }
+    } catch (RuntimeException e) {
+      FreecellMetrics.moveRejected(rejection);
+      new MoveRejectedEvent().finish(source, pileNumber, cardIndex, destination, destPileNumber,
+          e);
+      throw e;
+    }
+    this.makeMove(Move.pack(source, pileNumber, source == PileType.OPEN ? 0 : cardIndex,
+        destination, destPileNumber, 1));
+    FreecellMetrics.moveSucceeded(1, started);
+    event.finish(source, pileNumber, destination, destPileNumber, 1);
+  }
+
+  // writes every legal move of the current position to the buffer as packed moves
+  @Override
+  public int legalMoves(int[] buffer) throws IllegalArgumentException, IllegalStateException {
+    this.checkMoveBuffer(buffer);
+    int count = 0;
+    for (int i = 0; i < this.board.numCascades(); i++) {
+      int height = this.board.height(i);
+      if (height > 0) {
+        count = this.cardMoves(PileType.CASCADE, i, height - 1, this.board.cascadeTop(i), false,
+            buffer, count);
+      }
     }
-    Card toMove = this.cardFromSource(source, pileNumber, cardIndex);
-    switch (destination) {
-      case OPEN:
-        if (this.open.get(destPileNumber).size() == 1) {
-          throw new IllegalArgumentException("Open pile is full");
-        } else {
-          this.open.get(destPileNumber).add(toMove);
+    for (int i = 0; i < this.board.numOpen(); i++) {
+      int card = this.board.openAt(i);
+      if (card != PackedBoard.EMPTY) {
+        count = this.cardMoves(PileType.OPEN, i, 0, card, false, buffer, count);
+      }
+    }
+    return count;
+  }
+
+  // returns the most legal moves a position can have, one per pair of a card that can move and
+  // a pile it can move to
+  @Override
+  public int maxLegalMoves() throws IllegalStateException {
+    if (!this.gameStarted) {
+      throw new IllegalStateException("Game has not yet started");
+    }
+    int piles = this.board.numCascades() + this.board.numOpen();
+    return piles * (piles + PackedBoard.NUM_FOUNDATIONS);
+  }
+
+  /**
+   * Throws an exception if moves cannot be written to the given buffer.
+   *
+   * @param buffer represents the buffer moves will be written to
+   * @throws IllegalArgumentException if the buffer is null or shorter than the most legal moves
+   * @throws IllegalStateException    if the game has not started
+   */
+  protected void checkMoveBuffer(int[] buffer)
+      throws IllegalArgumentException, IllegalStateException {
+    if (buffer == null || buffer.length < this.maxLegalMoves()) {
+      throw new IllegalArgumentException("Move buffer is too small");
+    }
+  }
+
+  /**
+   * Writes every legal move of a single card to the buffer, starting at the given count.
+   *
+   * @param source        represents the type of the pile the card is in
+   * @param pileNumber    represents the index of the pile the card is in
+   * @param cardIndex     represents the index of the card in its pile
+   * @param card          represents the code of the card
+   * @param emptyCascades true if the card may be moved to an empty cascade pile
+   * @param buffer        represents the buffer to write the packed moves to
+   * @param count         represents the number of moves already in the buffer
+   * @return the number of moves in the buffer afterwards
+   */
+  protected int cardMoves(PileType source, int pileNumber, int cardIndex, int card,
+      boolean emptyCascades, int[] buffer, int count) {
+    for (int i = 0; i < PackedBoard.NUM_FOUNDATIONS; i++) {
+      if (this.foundationValid(card, i)) {
+        buffer[count++] = Move.pack(source, pileNumber, cardIndex, PileType.FOUNDATION, i, 1);
+      }
+    }
+    for (int i = 0; i < this.board.numCascades(); i++) {
+      int top = this.board.cascadeTop(i);
+      if (top == PackedBoard.EMPTY ? emptyCascades
+          : PackedBoard.isRed(card) != PackedBoard.isRed(top)
+              && PackedBoard.valueOf(top) - PackedBoard.valueOf(card) == 1) {
+        buffer[count++] = Move.pack(source, pileNumber, cardIndex, PileType.CASCADE, i, 1);
+      }
+    }
+    for (int i = 0; i < this.board.numOpen(); i++) {
+      if (this.board.openAt(i) == PackedBoard.EMPTY) {
+        buffer[count++] = Move.pack(source, pileNumber, cardIndex, PileType.OPEN, i, 1);
+      }
+    }
+    return count;
+  }
+
+  // moves safe cards from the tops of the cascade and open piles to the foundations until a pass
+  // over every pile moves nothing
+  @Override
+  public int autoPlay(int[] buffer) throws IllegalArgumentException, IllegalStateException {
+    if (!this.gameStarted) {
+      throw new IllegalStateException("Game has not yet started");
+    }
+    if (buffer != null && buffer.length < Card.NUM_CARDS) {
+      throw new IllegalArgumentException("Move buffer is too small");
+    }
+    int count = 0;
+    boolean moved = true;
+    while (moved) {
+      moved = false;
+      for (int i = 0; i < this.board.numCascades(); i++) {
+        int height = this.board.height(i);
+        int dest = height == 0 ? -1 : this.safeFoundation(this.board.cascadeTop(i));
+        if (dest != -1) {
+          int move = Move.pack(PileType.CASCADE, i, height - 1, PileType.FOUNDATION, dest, 1);
+          this.makeMove(move);
+          if (buffer != null) {
+            buffer[count] = move;
+          }
+          count++;
+          moved = true;
         }
-        break;
-      case CASCADE:
-        if (!this.cascadeValid(toMove, destPileNumber)) {
-          throw new IllegalArgumentException("Move is not valid");
-        } else {
-          this.cascade.get(destPileNumber).add(toMove);
+      }
+      for (int i = 0; i < this.board.numOpen(); i++) {
+        int card = this.board.openAt(i);
+        int dest = card == PackedBoard.EMPTY ? -1 : this.safeFoundation(card);
+        if (dest != -1) {
+          int move = Move.pack(PileType.OPEN, i, 0, PileType.FOUNDATION, dest, 1);
+          this.makeMove(move);
+          if (buffer != null) {
+            buffer[count] = move;
+          }
+          count++;
+          moved = true;
         }
-        break;
-      case FOUNDATION:
-        if (foundationValid(toMove, destPileNumber)) {
-          this.foundation.get(destPileNumber).add(toMove);
-        } else {
-          throw new IllegalArgumentException("Move is not valid");
+      }
+    }
+    return count;
+  }
+
+  // returns the foundation pile the given card can be played to if it is safe to play, or -1
+  private int safeFoundation(int card) {
+    int value = PackedBoard.valueOf(card);
+    int dest = -1;
+    int oppositeCovered = 0;
+    for (int i = 0; i < PackedBoard.NUM_FOUNDATIONS; i++) {
+      int top = this.board.foundationTop(i);
+      if (top == PackedBoard.EMPTY) {
+        if (value == 1 && dest == -1) {
+          dest = i;
         }
-        break;
-      default:
-        throw new IllegalArgumentException("Invalid pile type");
+      } else if (top == card - 1 && value > 1) {
+        dest = i;
+      } else if (PackedBoard.isRed(top) != PackedBoard.isRed(card)
+          && PackedBoard.valueOf(top) >= value - 1) {
+        oppositeCovered++;
+      }
     }
-    this.removeFrom(toMove, source, pileNumber);
+    return dest != -1 && (value <= 2 || oppositeCovered == 2) ? dest : -1;
+  }
+
+  // takes back the last move that is in effect
+  @Override
+  public void undo() throws IllegalStateException {
+    if (!this.canUndo()) {
+      throw new IllegalStateException("There is no move to undo");
+    }
+    int move = this.history[--this.numMoves];
+    this.board.revert(move);
+    this.fireMove(move, true);
+  }
+
+  // makes again the last move that was undone
+  @Override
+  public void redo() throws IllegalStateException {
+    if (!this.canRedo()) {
+      throw new IllegalStateException("There is no move to redo");
+    }
+    int move = this.history[this.numMoves++];
+    this.board.apply(move);
+    this.fireMove(move, false);
+  }
+
+  // returns true if the game has started and a move can be undone
+  @Override
+  public boolean canUndo() {
+    return this.gameStarted && this.numMoves > 0;
+  }
+
+  // returns true if the game has started and an undone move can be made again
+  @Override
+  public boolean canRedo() {
+    return this.gameStarted && this.numMoves < this.historyEnd;
   }
 
   // returns true if the game is over, or all foundation piles are full
   @Override
   public boolean isGameOver() {
-    return this.foundation.get(0).size() == 13 && this.foundation.get(1).size() == 13
-        && this.foundation.get(2).size() == 13 && this.foundation.get(3).size() == 13;
+    return this.gameStarted && this.board.foundationsComplete();
+  }
+
+  /**
+   * Returns the 64-bit Zobrist hash of the current position. Two positions with the same cards in
+   * the same places have the same hash, and each move updates it in constant time.
+   *
+   * @return the hash of the current position
+   * @throws IllegalStateException if the game has not started
+   */
+  public long getPositionHash() throws IllegalStateException {
+    if (!this.gameStarted) {
+      throw new IllegalStateException("Game has not yet started");
+    }
+    return this.board.hash();
   }
 
   // returns the number of cards in the given foundation pile
@@ -232,7 +641,7 @@ public class SimpleFreecellModel implements FreecellModel<Card> {
     if (index < 0 || index > 3) {
       throw new IllegalArgumentException("Index must be between 0 and 3");
     } else {
-      return foundation.get(index).size();
+      return this.board.foundationSize(index);
     }
   }
 
@@ -242,7 +651,7 @@ public class SimpleFreecellModel implements FreecellModel<Card> {
     if (!gameStarted) {
       return -1;
     } else {
-      return cascade.size();
+      return this.board.numCascades();
     }
   }
 
@@ -254,10 +663,10 @@ public class SimpleFreecellModel implements FreecellModel<Card> {
     if (!gameStarted) {
       throw new IllegalStateException("Game has not yet started");
     }
-    if (index < 0 || index > (cascade.size() - 1)) {
+    if (index < 0 || index > (this.board.numCascades() - 1)) {
       throw new IllegalArgumentException("Index is out of range");
     } else {
-      return cascade.get(index).size();
+      return this.board.height(index);
     }
   }
 
@@ -269,29 +678,20 @@ public class SimpleFreecellModel implements FreecellModel<Card> {
     if (!gameStarted) {
       throw new IllegalStateException("Game has not yet started");
     }
-    if (index < 0 || index > (open.size() - 1)) {
+    if (index < 0 || index > (this.board.numOpen() - 1)) {
       throw new IllegalArgumentException("Index is out of range");
     } else {
-      return this.open.get(index).size();
+      return this.board.openAt(index) == PackedBoard.EMPTY ? 0 : 1;
     }
   }
 
-  // returns the total number of cards in the open piles
-  private int numOpenCards() {
-    int cards = 0;
-    for (int i = 0; i < this.open.size(); i++) {
-      cards += getNumCardsInOpenPile(i);
-    }
-    return cards;
-  }
-
   // returns the number of open piles in the game, or -1 if the game has yet to start
   @Override
   public int getNumOpenPiles() {
     if (!gameStarted) {
       return -1;
     } else {
-      return this.open.size();
+      return this.board.numOpen();
     }
   }
 
@@ -302,13 +702,14 @@ public class SimpleFreecellModel implements FreecellModel<Card> {
     if (!gameStarted) {
       throw new IllegalStateException("Game has not yet started");
     }
-    if (pileIndex < 0 || pileIndex > (this.foundation.size() - 1)) {
+    if (pileIndex < 0 || pileIndex > (PackedBoard.NUM_FOUNDATIONS - 1)) {
       throw new IllegalArgumentException("Pile index is out of range");
     }
-    if (cardIndex < 0 || cardIndex > (this.foundation.get(pileIndex).size() - 1)) {
+    if (cardIndex < 0 || cardIndex > (this.board.foundationSize(pileIndex) - 1)) {
       throw new IllegalArgumentException("Card index is out of range");
     } else {
-      return this.foundation.get(pileIndex).get(cardIndex);
+      int top = this.board.foundationTop(pileIndex);
+      return PackedBoard.cardOf(top - PackedBoard.valueOf(top) + cardIndex + 1);
     }
   }
 
@@ -319,16 +720,13 @@ public class SimpleFreecellModel implements FreecellModel<Card> {
     if (!this.gameStarted) {
       throw new IllegalStateException("Game has not yet started");
     }
-    if (pileIndex < 0 || pileIndex > (this.cascade.size() - 1)) {
+    if (pileIndex < 0 || pileIndex > (this.board.numCascades() - 1)) {
       throw new IllegalArgumentException("Pile index is out of range");
     }
-    if (cardIndex < 0 || cardIndex > (this.cascade.get(pileIndex).size() - 1)) {
+    if (cardIndex < 0 || cardIndex > (this.board.height(pileIndex) - 1)) {
       throw new IllegalArgumentException("Card index is out of range");
-    }
-    if (this.cascade.size() == 0) {
-      throw new IllegalStateException("Game has not yet started");
     } else {
-      return this.cascade.get(pileIndex).get(cardIndex);
+      return PackedBoard.cardOf(this.board.cascadeAt(pileIndex, cardIndex));
     }
   }
 
@@ -338,13 +736,14 @@ public class SimpleFreecellModel implements FreecellModel<Card> {
     if (!this.gameStarted) {
       throw new IllegalStateException("Game has not yet started");
     }
-    if (pileIndex < 0 || pileIndex > (this.open.size() - 1)) {
+    if (pileIndex < 0 || pileIndex > (this.board.numOpen() - 1)) {
       throw new IllegalArgumentException("Index is out of range");
     }
-    if (this.open.get(pileIndex).size() == 0) {
+    int code = this.board.openAt(pileIndex);
+    if (code == PackedBoard.EMPTY) {
       return null;
     } else {
-      return this.open.get(pileIndex).get(0);
+      return PackedBoard.cardOf(code);
     }
   }
 }
\ No newline at end of file
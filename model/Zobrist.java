@@ -0,0 +1,60 @@
+package cs3500.freecell.model.hw02;
+
+/**
+ * Supplies the 64-bit Zobrist keys used to hash board positions. A position hashes to the
+ * exclusive or of one key per card, chosen by where the card lies, so a move updates the hash by
+ * removing and adding the keys of the few cards it touches. Rather than storing a table of random
+ * keys for every pile size, each key is produced by mixing its table index with the SplitMix64
+ * finalizer, which gives the same keys every run.
+ */
+public final class Zobrist {
+
+  private static final long CASCADE = 0x6a09e667f3bcc908L;
+  private static final long OPEN = 0xbb67ae8584caa73bL;
+  private static final long FOUNDATION = 0x3c6ef372fe94f82bL;
+
+  private Zobrist() {
+  }
+
+  /**
+   * Returns the key of a card at a given place in a cascade pile.
+   *
+   * @param pile  represents the index of the cascade pile
+   * @param index represents the index of the card in the pile
+   * @param code  represents the code of the card
+   * @return the key
+   */
+  public static long cascadeKey(int pile, int index, int code) {
+    return mix(CASCADE + ((long) pile << 16 | index << 8 | code));
+  }
+
+  /**
+   * Returns the key of a card in a given open pile.
+   *
+   * @param pile represents the index of the open pile
+   * @param code represents the code of the card
+   * @return the key
+   */
+  public static long openKey(int pile, int code) {
+    return mix(OPEN + ((long) pile << 8 | code));
+  }
+
+  /**
+   * Returns the key of a card on top of a given foundation pile.
+   *
+   * @param pile represents the index of the foundation pile
+   * @param code represents the code of the card
+   * @return the key
+   */
+  public static long foundationKey(int pile, int code) {
+    return mix(FOUNDATION + ((long) pile << 8 | code));
+  }
+
+  // scrambles the bits of the given value with the SplitMix64 finalizer
+  static long mix(long value) {
+    long z = value * 0x9e3779b97f4a7c15L;
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,109 @@
+package cs3500.freecell.replay;
+
+import cs3500.freecell.model.Move;
+import cs3500.freecell.model.PileType;
+
+/**
+ * Describes the binary replay format shared by {@link ReplayWriter} and {@link ReplayReader}.
+ *
+ * <p>A replay file starts with the four bytes {@code FCR1} and then holds any number of game
+ * records, each laid out big endian as:
+ * <pre>
+ * byte  deal kind, {@link #DECK} or {@link #CLASSIC}
+ * byte  1 if the game was played with the multi move rules, 0 otherwise
+ * byte  number of cascade piles, unsigned
+ * byte  number of open piles, unsigned
+ * int   number of moves
+ * int   number of bytes of moves
+ * deal  the 52 card codes of the deck in dealing order, or the int number of a classic deal
+ * moves the moves, one to two bytes each on a standard board
+ * </pre>
+ *
+ * <p>Each move names its source and destination by slot, where the cascade piles come first,
+ * then the open piles, then the foundation piles. The index of the first card moved is left out,
+ * since it follows from the size of the source pile and the number of cards moved. A single card
+ * moved from one of the first 8 slots to one of the first 16 takes one byte. Any other move of
+ * at most 16 cards between the first 32 slots takes two bytes, which covers every move on a
+ * standard board. Larger boards fall back to four bytes per move. {@link #encode} gives the bits.
+ */
+final class ReplayFormat {
+
+  static final int MAGIC = 0x46435231;
+  static final int DECK = 0;
+  static final int CLASSIC = 1;
+  static final int HEADER_SIZE = 12;
+  static final int DECK_SIZE = 52;
+  static final int MAX_MOVE_SIZE = 4;
+
+  private static final int SHORT_SOURCES = 8;
+  private static final int SHORT_SLOTS = 16;
+  private static final int MEDIUM_SLOTS = 32;
+  private static final int MEDIUM_COUNT = 16;
+
+  private ReplayFormat() {
+  }
+
+  // returns the slot of the given pile on a board with the given numbers of piles
+  static int slotOf(PileType type, int pileNumber, int numCascades, int numOpen) {
+    switch (type) {
+      case CASCADE:
+        return pileNumber;
+      case OPEN:
+        return numCascades + pileNumber;
+      default:
+        return numCascades + numOpen + pileNumber;
+    }
+  }
+
+  // returns the type of the pile in the given slot
+  static PileType typeOf(int slot, int numCascades, int numOpen) {
+    if (slot < numCascades) {
+      return PileType.CASCADE;
+    }
+    return slot < numCascades + numOpen ? PileType.OPEN : PileType.FOUNDATION;
+  }
+
+  // returns the index, within its type, of the pile in the given slot
+  static int pileOf(int slot, int numCascades, int numOpen) {
+    if (slot < numCascades) {
+      return slot;
+    }
+    return slot < numCascades + numOpen ? slot - numCascades : slot - numCascades - numOpen;
+  }
+
+  /**
+   * Writes the given packed move into the given array. The one byte form is {@code 0sssdddd},
+   * with 3 bits of source slot and 4 of destination slot. The two byte form is {@code 10sssssd
+   * ddddcccc}, with 5 bits each of source and destination and 4 bits of the count less one. The
+   * four byte form is {@code 11} followed by 30 bits holding 9 bits each of source and
+   * destination and 6 bits of count.
+   *
+   * @param move        the packed move, see {@link Move#pack}
+   * @param numCascades the number of cascade piles of the board
+   * @param numOpen     the number of open piles of the board
+   * @param out         the array to write to, with at least {@link #MAX_MOVE_SIZE} bytes free
+   * @param pos         the index to write the first byte at
+   * @return the index after the last byte written
+   */
+  static int encode(int move, int numCascades, int numOpen, byte[] out, int pos) {
+    int source = slotOf(Move.source(move), Move.pileNumber(move), numCascades, numOpen);
+    int dest = slotOf(Move.destination(move), Move.destPileNumber(move), numCascades, numOpen);
+    int count = Move.count(move);
+    if (count == 1 && source < SHORT_SOURCES && dest < SHORT_SLOTS) {
+      out[pos] = (byte) (source << 4 | dest);
+      return pos + 1;
+    }
+    if (source < MEDIUM_SLOTS && dest < MEDIUM_SLOTS && count <= MEDIUM_COUNT) {
+      int bits = 0x8000 | source << 9 | dest << 4 | (count - 1);
+      out[pos] = (byte) (bits >>> 8);
+      out[pos + 1] = (byte) bits;
+      return pos + 2;
+    }
+    int bits = 0xc0000000 | source << 15 | dest << 6 | count;
+    out[pos] = (byte) (bits >>> 24);
+    out[pos + 1] = (byte) (bits >>> 16);
+    out[pos + 2] = (byte) (bits >>> 8);
+    out[pos + 3] = (byte) bits;
+    return pos + 4;
+  }
+}
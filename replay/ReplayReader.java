@@ -0,0 +1,262 @@
+package cs3500.freecell.replay;
+
+import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.PileType;
+import cs3500.freecell.model.hw02.Card;
+import cs3500.freecell.model.hw02.DealGenerator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the games of a replay file written by {@link ReplayWriter}. The file is memory mapped
+ * rather than read into the heap, and moves are decoded straight from the mapping as they are
+ * replayed, so files much larger than memory can be checked game by game. Files over a gigabyte
+ * are mapped one window at a time.
+ */
+public final class ReplayReader implements Closeable {
+
+  private static final long WINDOW_SIZE = 1L << 30;
+
+  private final FileChannel channel;
+  private final long size;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private long position;
+  // INVARIANT: position is the offset in the file of the record after the current one
+  private int recordStart;
+  // INVARIANT: the current record starts at recordStart within the window
+  private int kind;
+  private boolean multiMove;
+  private int numCascades;
+  private int numOpen;
+  private int numMoves;
+  private int movesLength;
+  private final Card[] deck;
+  private final List<Card> deckView;
+
+  private ReplayReader(FileChannel channel) throws IOException {
+    this.channel = channel;
+    this.size = channel.size();
+    this.deck = new Card[ReplayFormat.DECK_SIZE];
+    this.deckView = Collections.unmodifiableList(Arrays.asList(this.deck));
+    this.position = 4;
+    this.recordStart = -1;
+    this.map(0);
+    if (this.size < 4 || this.window.getInt(0) != ReplayFormat.MAGIC) {
+      throw new IOException("Not a replay file");
+    }
+  }
+
+  /**
+   * Opens the given replay file for reading.
+   *
+   * @param path the path of the file
+   * @return a reader positioned before the first game
+   * @throws IOException if the file cannot be opened or is not a replay file
+   */
+  public static ReplayReader open(Path path) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      return new ReplayReader(channel);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Moves to the next game of the file.
+   *
+   * @return true if there was another game, false at the end of the file
+   * @throws IllegalStateException if the file ends part way through a game or is corrupt
+   */
+  public boolean next() throws IllegalStateException {
+    if (this.position == this.size) {
+      return false;
+    }
+    int header = this.require(this.position, ReplayFormat.HEADER_SIZE);
+    this.kind = this.window.get(header);
+    this.multiMove = this.window.get(header + 1) != 0;
+    this.numCascades = this.window.get(header + 2) & 0xff;
+    this.numOpen = this.window.get(header + 3) & 0xff;
+    this.numMoves = this.window.getInt(header + 4);
+    this.movesLength = this.window.getInt(header + 8);
+    int dealLength = this.kind == ReplayFormat.DECK ? ReplayFormat.DECK_SIZE : 4;
+    if (this.kind != ReplayFormat.DECK && this.kind != ReplayFormat.CLASSIC
+        || this.movesLength < 0) {
+      throw new IllegalStateException("Replay file is corrupt");
+    }
+    long length = ReplayFormat.HEADER_SIZE + dealLength + (long) this.movesLength;
+    this.recordStart = this.require(this.position, length);
+    this.position += length;
+    return true;
+  }
+
+  // makes sure the given range of the file is mapped and returns its start within the window
+  private int require(long start, long length) {
+    if (start + length > this.size) {
+      throw new IllegalStateException("Replay file ends part way through a game");
+    }
+    if (length > WINDOW_SIZE) {
+      throw new IllegalStateException("Game record is too large");
+    }
+    if (start < this.windowStart || start + length > this.windowStart + this.window.limit()) {
+      this.map(start);
+    }
+    return (int) (start - this.windowStart);
+  }
+
+  // maps the window of the file starting at the given offset
+  private void map(long start) {
+    try {
+      this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start,
+          Math.min(WINDOW_SIZE, this.size - start));
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not map replay file");
+    }
+    this.windowStart = start;
+  }
+
+  // returns the number of cascade piles of the current game
+  public int getNumCascadePiles() {
+    this.checkGame();
+    return this.numCascades;
+  }
+
+  // returns the number of open piles of the current game
+  public int getNumOpenPiles() {
+    this.checkGame();
+    return this.numOpen;
+  }
+
+  // returns true if the current game was played with the multi move rules
+  public boolean isMultiMove() {
+    this.checkGame();
+    return this.multiMove;
+  }
+
+  // returns the number of moves of the current game
+  public int getNumMoves() {
+    this.checkGame();
+    return this.numMoves;
+  }
+
+  /**
+   * Returns the deck the current game was dealt from without shuffling. The list is reused by
+   * the next game, so it should be copied if it must be kept.
+   *
+   * @return the deck in dealing order, which cannot be modified
+   * @throws IllegalStateException if there is no current game or its deck is corrupt
+   */
+  public List<Card> getDeck() throws IllegalStateException {
+    this.checkGame();
+    int deal = this.recordStart + ReplayFormat.HEADER_SIZE;
+    if (this.kind == ReplayFormat.CLASSIC) {
+      return DealGenerator.classicDeal(this.window.getInt(deal));
+    }
+    for (int i = 0; i < this.deck.length; i++) {
+      int code = this.window.get(deal + i);
+      if (code < 1 || code > ReplayFormat.DECK_SIZE) {
+        throw new IllegalStateException("Replay file is corrupt");
+      }
+      this.deck[i] = Card.fromOrdinal(code - 1);
+    }
+    return this.deckView;
+  }
+
+  /**
+   * Starts the current game on the given model and makes each of its moves, decoding them from
+   * the mapped file as it goes. Any model can be given, so games can be checked against rules
+   * other than the ones they were played with.
+   *
+   * @param model the model to replay the game on
+   * @return the number of moves made, which is every move of the game
+   * @throws IllegalArgumentException if the deck or a move is not legal on the given model
+   * @throws IllegalStateException    if there is no current game or its moves are corrupt
+   */
+  public int replay(FreecellModel<Card> model)
+      throws IllegalArgumentException, IllegalStateException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    model.startGame(this.getDeck(), this.numCascades, this.numOpen, false);
+    int pos = this.recordStart + ReplayFormat.HEADER_SIZE
+        + (this.kind == ReplayFormat.DECK ? ReplayFormat.DECK_SIZE : 4);
+    int end = pos + this.movesLength;
+    for (int i = 0; i < this.numMoves; i++) {
+      if (pos >= end) {
+        throw new IllegalStateException("Replay file is corrupt");
+      }
+      int first = this.window.get(pos) & 0xff;
+      int source;
+      int dest;
+      int count;
+      if ((first & 0x80) == 0) {
+        source = first >>> 4;
+        dest = first & 0xf;
+        count = 1;
+        pos += 1;
+      } else if ((first & 0x40) == 0) {
+        int bits = this.window.getShort(pos) & 0xffff;
+        source = (bits >>> 9) & 0x1f;
+        dest = (bits >>> 4) & 0x1f;
+        count = (bits & 0xf) + 1;
+        pos += 2;
+      } else {
+        int bits = this.window.getInt(pos);
+        source = (bits >>> 15) & 0x1ff;
+        dest = (bits >>> 6) & 0x1ff;
+        count = bits & 0x3f;
+        pos += 4;
+      }
+      try {
+        this.makeMove(model, source, dest, count);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Move " + (i + 1) + " is not legal: "
+            + e.getMessage());
+      }
+    }
+    return this.numMoves;
+  }
+
+  // makes the move between the given slots on the model, working out the index of the first card
+  // moved from the size of the source pile
+  private void makeMove(FreecellModel<Card> model, int source, int dest, int count) {
+    PileType sourceType = ReplayFormat.typeOf(source, this.numCascades, this.numOpen);
+    int sourcePile = ReplayFormat.pileOf(source, this.numCascades, this.numOpen);
+    int cardIndex;
+    switch (sourceType) {
+      case CASCADE:
+        cardIndex = model.getNumCardsInCascadePile(sourcePile) - count;
+        break;
+      case FOUNDATION:
+        cardIndex = model.getNumCardsInFoundationPile(sourcePile) - 1;
+        break;
+      default:
+        cardIndex = 0;
+    }
+    model.move(sourceType, sourcePile, cardIndex,
+        ReplayFormat.typeOf(dest, this.numCascades, this.numOpen),
+        ReplayFormat.pileOf(dest, this.numCascades, this.numOpen));
+  }
+
+  // throws an exception if there is no current game
+  private void checkGame() {
+    if (this.recordStart < 0) {
+      throw new IllegalStateException("No game has been read");
+    }
+  }
+
+  // closes the file; the mapping stays valid until it is collected
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+}
@@ -0,0 +1,138 @@
+package cs3500.freecell.replay;
+
+import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.FreecellModelCreator;
+import cs3500.freecell.model.FreecellModelListener;
+import cs3500.freecell.model.PileType;
+import cs3500.freecell.model.hw02.Card;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records every game played on a model to a {@link ReplayWriter}. The recorder listens to the
+ * model, so each successful move is recorded as it happens and undone moves are dropped. A game
+ * is written when the next game starts or the recorder is closed. The deck of each game is read
+ * back from the dealt cascade piles, so games started with shuffling replay correctly.
+ */
+public final class ReplayRecorder implements FreecellModelListener, Closeable {
+
+  private final FreecellModel<Card> model;
+  private final ReplayWriter writer;
+  private final Card[] deck;
+  private final List<Card> deckView;
+  private int[] moves;
+  private int numMoves;
+  private int numCascades;
+  private int numOpen;
+  private boolean recording;
+
+  /**
+   * Constructs a recorder and starts listening to the given model. A game already in progress
+   * is not recorded.
+   *
+   * @param model  the model to record
+   * @param writer the writer to write finished games to
+   * @throws IllegalArgumentException if the model or writer is null
+   */
+  public ReplayRecorder(FreecellModel<Card> model, ReplayWriter writer) {
+    if (model == null || writer == null) {
+      throw new IllegalArgumentException("Model and writer cannot be null");
+    }
+    this.model = model;
+    this.writer = writer;
+    this.deck = new Card[ReplayFormat.DECK_SIZE];
+    this.deckView = Arrays.asList(this.deck);
+    this.moves = new int[256];
+    this.numMoves = 0;
+    this.recording = false;
+    model.addListener(this);
+  }
+
+  // writes the game being recorded, then reads the deal of the new game
+  @Override
+  public void gameStarted(int numCascadePiles, int numOpenPiles) {
+    this.writeGame();
+    this.numCascades = numCascadePiles;
+    this.numOpen = numOpenPiles;
+    this.numMoves = 0;
+    int dealt = 0;
+    // the model deals round robin, so card i of the deck is in pile i % numCascadePiles
+    for (int row = 0; dealt < this.deck.length; row++) {
+      for (int pile = 0; pile < numCascadePiles && dealt < this.deck.length; pile++) {
+        this.deck[dealt++] = this.model.getCascadeCardAt(pile, row);
+      }
+    }
+    this.recording = true;
+  }
+
+  // writes the game being recorded, then records nothing until the next deal, since a restored
+  // position has no deck to replay it from
+  @Override
+  public void positionRestored(int numCascadePiles, int numOpenPiles) {
+    this.writeGame();
+  }
+
+  // ignores pile changes, since the moves hold everything a replay needs
+  @Override
+  public void pileChanged(PileType type, int pileNumber, int delta) {
+  }
+
+  // adds the move to the game being recorded
+  @Override
+  public void moveCompleted(int move) {
+    if (!this.recording) {
+      return;
+    }
+    if (this.numMoves == this.moves.length) {
+      this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+    }
+    this.moves[this.numMoves++] = move;
+  }
+
+  // drops the last move of the game being recorded, or drops the whole recording if the undo
+  // takes back a move made before it started, since its deal no longer matches the game
+  @Override
+  public void moveUndone(int move) {
+    if (!this.recording) {
+      return;
+    }
+    if (this.numMoves == 0) {
+      this.recording = false;
+    } else {
+      this.numMoves--;
+    }
+  }
+
+  // writes the game being recorded, if there is one
+  private void writeGame() {
+    if (!this.recording) {
+      return;
+    }
+    try {
+      this.writer.writeGame(this.deckView, this.numCascades, this.numOpen,
+          this.model.getGameType() == FreecellModelCreator.GameType.MULTIMOVE, this.moves,
+          this.numMoves);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not write replay");
+    }
+    this.recording = false;
+  }
+
+  /**
+   * Writes the game being recorded and stops listening to the model. The writer is left open.
+   *
+   * @throws IOException if the game cannot be written
+   */
+  @Override
+  public void close() throws IOException {
+    this.model.removeListener(this);
+    try {
+      this.writeGame();
+    } catch (IllegalStateException e) {
+      throw new IOException("Could not write replay", e);
+    }
+    this.writer.flush();
+  }
+}
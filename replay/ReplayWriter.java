@@ -0,0 +1,138 @@
+package cs3500.freecell.replay;
+
+import cs3500.freecell.model.Move;
+import cs3500.freecell.model.hw02.Card;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes games to a stream in the binary replay format described by {@link ReplayFormat}. Each
+ * game is encoded into a reusable buffer and written as one record, so a writer can archive any
+ * number of games one after another. {@link ReplayRecorder} feeds a writer from a live model.
+ */
+public final class ReplayWriter implements Closeable {
+
+  private final OutputStream out;
+  private byte[] record;
+
+  /**
+   * Constructs a writer and writes the start of a replay file to the given stream.
+   *
+   * @param out the stream to write to, which the writer closes when it is closed
+   * @throws IllegalArgumentException if the stream is null
+   * @throws IOException              if the stream cannot be written to
+   */
+  public ReplayWriter(OutputStream out) throws IOException {
+    if (out == null) {
+      throw new IllegalArgumentException("Stream cannot be null");
+    }
+    this.out = new BufferedOutputStream(out, 1 << 16);
+    this.record = new byte[256];
+    putInt(this.record, 0, ReplayFormat.MAGIC);
+    this.out.write(this.record, 0, 4);
+  }
+
+  /**
+   * Writes a game dealt from the given deck without shuffling.
+   *
+   * @param deck        the deck in dealing order
+   * @param numCascades the number of cascade piles
+   * @param numOpen     the number of open piles
+   * @param multiMove   true if the game was played with the multi move rules
+   * @param moves       the packed moves of the game, see {@link Move#pack}
+   * @param numMoves    the number of moves to write from the start of the array
+   * @throws IllegalArgumentException if the deck does not have 52 cards or a count is invalid
+   * @throws IOException              if the stream cannot be written to
+   */
+  public void writeGame(List<Card> deck, int numCascades, int numOpen, boolean multiMove,
+      int[] moves, int numMoves) throws IOException {
+    if (deck == null || deck.size() != ReplayFormat.DECK_SIZE) {
+      throw new IllegalArgumentException("Deck must have 52 cards");
+    }
+    int pos = this.header(ReplayFormat.DECK, numCascades, numOpen, multiMove, moves,
+        numMoves);
+    for (Card card : deck) {
+      this.record[pos++] = (byte) (card.ordinal() + 1);
+    }
+    this.finish(pos, numCascades, numOpen, moves, numMoves);
+  }
+
+  /**
+   * Writes a game dealt from the classic deal with the given number without shuffling.
+   *
+   * @param dealNumber  the number of the classic deal, see
+   *                    {@link cs3500.freecell.model.hw02.DealGenerator#classicDeal(int)}
+   * @param numCascades the number of cascade piles
+   * @param numOpen     the number of open piles
+   * @param multiMove   true if the game was played with the multi move rules
+   * @param moves       the packed moves of the game, see {@link Move#pack}
+   * @param numMoves    the number of moves to write from the start of the array
+   * @throws IllegalArgumentException if the deal number is not positive or a count is invalid
+   * @throws IOException              if the stream cannot be written to
+   */
+  public void writeGame(int dealNumber, int numCascades, int numOpen, boolean multiMove,
+      int[] moves, int numMoves) throws IOException {
+    if (dealNumber < 1) {
+      throw new IllegalArgumentException("Deal numbers start at 1");
+    }
+    int pos = this.header(ReplayFormat.CLASSIC, numCascades, numOpen, multiMove, moves,
+        numMoves);
+    putInt(this.record, pos, dealNumber);
+    this.finish(pos + 4, numCascades, numOpen, moves, numMoves);
+  }
+
+  // writes the fixed part of a record header to the start of the buffer, leaving the number of
+  // bytes of moves to be filled in, and returns the index after it
+  private int header(int kind, int numCascades, int numOpen, boolean multiMove, int[] moves,
+      int numMoves) {
+    if (numCascades < 1 || numCascades > Move.MAX_PILES || numOpen < 0
+        || numOpen > Move.MAX_PILES || moves == null || numMoves < 0 || numMoves > moves.length) {
+      throw new IllegalArgumentException("Invalid pile or move count");
+    }
+    int most = ReplayFormat.HEADER_SIZE + ReplayFormat.DECK_SIZE
+        + numMoves * ReplayFormat.MAX_MOVE_SIZE;
+    if (this.record.length < most) {
+      this.record = Arrays.copyOf(this.record, Math.max(most, this.record.length * 2));
+    }
+    this.record[0] = (byte) kind;
+    this.record[1] = (byte) (multiMove ? 1 : 0);
+    this.record[2] = (byte) numCascades;
+    this.record[3] = (byte) numOpen;
+    putInt(this.record, 4, numMoves);
+    return ReplayFormat.HEADER_SIZE;
+  }
+
+  // encodes the moves after the deal, fills in their length and writes the record
+  private void finish(int pos, int numCascades, int numOpen, int[] moves, int numMoves)
+      throws IOException {
+    int start = pos;
+    for (int i = 0; i < numMoves; i++) {
+      pos = ReplayFormat.encode(moves[i], numCascades, numOpen, this.record, pos);
+    }
+    putInt(this.record, 8, pos - start);
+    this.out.write(this.record, 0, pos);
+  }
+
+  // writes the given int big endian at the given index
+  private static void putInt(byte[] bytes, int pos, int value) {
+    bytes[pos] = (byte) (value >>> 24);
+    bytes[pos + 1] = (byte) (value >>> 16);
+    bytes[pos + 2] = (byte) (value >>> 8);
+    bytes[pos + 3] = (byte) value;
+  }
+
+  // writes any buffered records to the stream
+  public void flush() throws IOException {
+    this.out.flush();
+  }
+
+  // writes any buffered records and closes the stream
+  @Override
+  public void close() throws IOException {
+    this.out.close();
+  }
+}
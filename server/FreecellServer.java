@@ -0,0 +1,204 @@
+package cs3500.freecell.server;
+
+import cs3500.freecell.model.FreecellModelCreator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hosts freecell games for many clients at once over TCP on the local machine. Each connection is
+ * one session that plays one game through a
+ * {@link cs3500.freecell.controller.SimpleFreecellController}, reading commands from the client
+ * and writing the board back, on a thread of its own. Sessions run on virtual threads when the
+ * runtime has them, so thousands can be open at once.
+ *
+ * <p>A session is closed when its client sends nothing for the idle timeout, or when writing to
+ * it stays blocked that long because the client stopped reading. Connections beyond the session
+ * cap are told the server is full and closed.
+ */
+public final class FreecellServer implements Closeable {
+
+  private final ServerSocket serverSocket;
+  private final FreecellModelCreator.GameType type;
+  private final int maxSessions;
+  private final int idleTimeoutMillis;
+  private final int numCascades;
+  private final int numOpen;
+  private final ServerMetrics metrics;
+  private final Set<GameSession> sessions;
+  private final ExecutorService sessionThreads;
+  private final ScheduledExecutorService reaper;
+  private final Thread acceptor;
+
+  /**
+   * Constructs a server listening on the given port of the loopback address. It does not accept
+   * connections until it is started.
+   *
+   * @param port              the port to listen on, or 0 for any free port
+   * @param type              the rules of the games to host
+   * @param maxSessions       the most sessions that may be open at once
+   * @param idleTimeoutMillis how long a session may wait on its client, in milliseconds
+   * @param numCascades       the number of cascade piles to deal each game
+   * @param numOpen           the number of open piles of each game
+   * @throws IllegalArgumentException if the type is null or a number is out of range
+   * @throws IOException              if the port cannot be listened on
+   */
+  public FreecellServer(int port, FreecellModelCreator.GameType type, int maxSessions,
+      int idleTimeoutMillis, int numCascades, int numOpen) throws IOException {
+    if (type == null || maxSessions < 1 || idleTimeoutMillis < 1) {
+      throw new IllegalArgumentException("Invalid server settings");
+    }
+    this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+    this.type = type;
+    this.maxSessions = maxSessions;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.numCascades = numCascades;
+    this.numOpen = numOpen;
+    this.metrics = new ServerMetrics();
+    this.sessions = ConcurrentHashMap.newKeySet();
+    this.sessionThreads = newSessionExecutor();
+    this.reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "freecell-server-reaper");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.acceptor = new Thread(this::acceptLoop, "freecell-server-acceptor");
+  }
+
+  // returns an executor that runs each task on a new virtual thread when the runtime has them,
+  // and on a pooled platform thread otherwise
+  private static ExecutorService newSessionExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return Executors.newCachedThreadPool();
+    }
+  }
+
+  /**
+   * Starts accepting connections, and checks for stalled writes every tenth of the idle timeout.
+   */
+  public void start() {
+    long period = Math.max(1, this.idleTimeoutMillis / 10);
+    this.reaper.scheduleAtFixedRate(() -> {
+      long now = System.currentTimeMillis();
+      for (GameSession session : this.sessions) {
+        session.closeIfStalled(now, this.idleTimeoutMillis);
+      }
+    }, period, period, TimeUnit.MILLISECONDS);
+    this.acceptor.start();
+  }
+
+  // accepts connections until the server socket is closed
+  private void acceptLoop() {
+    while (!this.serverSocket.isClosed()) {
+      Socket socket;
+      try {
+        socket = this.serverSocket.accept();
+      } catch (IOException e) {
+        return;
+      }
+      if (!this.metrics.tryOpen(this.maxSessions)) {
+        // written on a thread of its own, so a client that does not read cannot hold up the rest
+        try {
+          this.sessionThreads.execute(() -> reject(socket));
+        } catch (RejectedExecutionException e) {
+          closeQuietly(socket);
+        }
+        continue;
+      }
+      GameSession session = null;
+      try {
+        socket.setSoTimeout(this.idleTimeoutMillis);
+        socket.setTcpNoDelay(true);
+        session = new GameSession(socket, this.type, this.numCascades, this.numOpen,
+            this.metrics, this.sessions);
+        this.sessions.add(session);
+        this.sessionThreads.execute(session);
+      } catch (IOException e) {
+        this.metrics.disconnect();
+        closeQuietly(socket);
+      } catch (RejectedExecutionException e) {
+        // the server was closed after the connection was accepted
+        this.sessions.remove(session);
+        this.metrics.disconnect();
+        closeQuietly(socket);
+      }
+    }
+  }
+
+  // closes a connection that could not be set up
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // the connection is already unusable
+    }
+  }
+
+  // tells a client the server is full and closes its connection
+  private static void reject(Socket socket) {
+    try (Socket closing = socket) {
+      OutputStream out = closing.getOutputStream();
+      out.write("Server is full.\n".getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      // the client is turned away either way
+    }
+  }
+
+  // returns the port the server is listening on
+  public int getPort() {
+    return this.serverSocket.getLocalPort();
+  }
+
+  // returns the live session counts of the server
+  public ServerMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Stops accepting connections and closes every open session.
+   *
+   * @throws IOException if the server socket cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    this.serverSocket.close();
+    this.reaper.shutdownNow();
+    for (GameSession session : this.sessions) {
+      session.close();
+    }
+    this.sessionThreads.shutdown();
+  }
+
+  /**
+   * Runs a server until the process is stopped.
+   *
+   * @param args the port, then optionally single or multi for the rules, the session cap and the
+   *             idle timeout in seconds
+   * @throws IOException if the port cannot be listened on
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+    FreecellModelCreator.GameType type = args.length > 1 && args[1].equalsIgnoreCase("multi")
+        ? FreecellModelCreator.GameType.MULTIMOVE : FreecellModelCreator.GameType.SINGLEMOVE;
+    int maxSessions = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+    int idleSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 300;
+    FreecellServer server = new FreecellServer(port, type, maxSessions, idleSeconds * 1000, 8,
+        4);
+    server.start();
+    System.out.println("Serving freecell on port " + server.getPort());
+  }
+}
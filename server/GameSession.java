@@ -0,0 +1,187 @@
+package cs3500.freecell.server;
+
+import cs3500.freecell.controller.SimpleFreecellController;
+import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.FreecellModelCreator;
+import cs3500.freecell.model.hw02.Card;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Represents one client of a {@link FreecellServer}, playing one game through a
+ * {@link SimpleFreecellController} over its connection. Output goes through a bounded buffer
+ * that is flushed whenever the controller waits for input, so a client that stops reading blocks
+ * only its own session, until the server closes it for being idle.
+ */
+final class GameSession implements Runnable, Appendable, Readable {
+
+  private static final int OUTPUT_BUFFER = 8192;
+
+  private final Socket socket;
+  private final FreecellModelCreator.GameType type;
+  private final int numCascades;
+  private final int numOpen;
+  private final ServerMetrics metrics;
+  private final Set<GameSession> open;
+  private Reader in;
+  private Writer out;
+  private volatile long writeStarted;
+  // INVARIANT: writeStarted is the time a blocked write began, in milliseconds, or 0
+  private volatile boolean timedOut;
+  private boolean failed;
+
+  /**
+   * Constructs a session for a newly accepted connection, already counted as open.
+   *
+   * @param socket      the connection to the client
+   * @param type        the rules of the game to play
+   * @param numCascades the number of cascade piles to deal
+   * @param numOpen     the number of open piles
+   * @param metrics     the metrics to report the end of the session to
+   * @param open        the open sessions of the server, which this session leaves when it ends
+   */
+  GameSession(Socket socket, FreecellModelCreator.GameType type, int numCascades, int numOpen,
+      ServerMetrics metrics, Set<GameSession> open) {
+    this.socket = socket;
+    this.type = type;
+    this.numCascades = numCascades;
+    this.numOpen = numOpen;
+    this.metrics = metrics;
+    this.open = open;
+    this.writeStarted = 0;
+    this.timedOut = false;
+    this.failed = false;
+  }
+
+  // plays one game with the client, then closes the connection and reports how it ended
+  @Override
+  @SuppressWarnings("unchecked")
+  public void run() {
+    boolean finished = false;
+    try {
+      this.in = new InputStreamReader(this.socket.getInputStream(), StandardCharsets.UTF_8);
+      this.out = new BufferedWriter(
+          new OutputStreamWriter(this.socket.getOutputStream(), StandardCharsets.UTF_8),
+          OUTPUT_BUFFER);
+      FreecellModel<Card> model = FreecellModelCreator.create(this.type);
+      new SimpleFreecellController<Card>(model, this, this)
+          .playGame(model.getDeck(), this.numCascades, this.numOpen, true);
+      this.flush();
+      finished = !this.failed;
+    } catch (IOException | IllegalStateException e) {
+      // the client went away, stopped sending input or was idle too long
+    } finally {
+      this.close();
+      if (finished) {
+        this.metrics.complete();
+      } else if (this.timedOut) {
+        this.metrics.timeOut();
+      } else {
+        this.metrics.disconnect();
+      }
+      this.open.remove(this);
+    }
+  }
+
+  // sends buffered output before waiting for more input, so the client sees the board first
+  @Override
+  public int read(CharBuffer cb) throws IOException {
+    this.flush();
+    try {
+      return this.in.read(cb);
+    } catch (SocketTimeoutException e) {
+      this.timedOut = true;
+      throw e;
+    }
+  }
+
+  @Override
+  public Appendable append(CharSequence csq) {
+    return this.append(csq, 0, csq.length());
+  }
+
+  // writes to the bounded buffer, blocking while the client is slow to read, and drops output
+  // once the connection has failed so that the controller does not report every write
+  @Override
+  public Appendable append(CharSequence csq, int start, int end) {
+    if (!this.failed) {
+      this.writeStarted = System.currentTimeMillis();
+      try {
+        this.out.append(csq, start, end);
+      } catch (IOException e) {
+        this.fail();
+      } finally {
+        this.writeStarted = 0;
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public Appendable append(char c) {
+    if (!this.failed) {
+      this.writeStarted = System.currentTimeMillis();
+      try {
+        this.out.write(c);
+      } catch (IOException e) {
+        this.fail();
+      } finally {
+        this.writeStarted = 0;
+      }
+    }
+    return this;
+  }
+
+  // sends the buffered output to the client
+  private void flush() {
+    if (!this.failed) {
+      this.writeStarted = System.currentTimeMillis();
+      try {
+        this.out.flush();
+      } catch (IOException e) {
+        this.fail();
+      } finally {
+        this.writeStarted = 0;
+      }
+    }
+  }
+
+  // stops writing and closes the connection, so the next read ends the game
+  private void fail() {
+    this.failed = true;
+    this.close();
+  }
+
+  /**
+   * Closes the session if a write has been blocked for longer than the given time, which
+   * unblocks the write.
+   *
+   * @param now     the current time in milliseconds
+   * @param timeout the longest a write may block, in milliseconds
+   */
+  void closeIfStalled(long now, long timeout) {
+    long started = this.writeStarted;
+    if (started != 0 && now - started > timeout) {
+      this.timedOut = true;
+      this.close();
+    }
+  }
+
+  // closes the connection, which ends any blocked read or write
+  void close() {
+    try {
+      this.socket.close();
+    } catch (IOException e) {
+      // the connection is already unusable
+    }
+  }
+}
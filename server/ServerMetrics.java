@@ -0,0 +1,108 @@
+package cs3500.freecell.server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Represents the session counts of a {@link FreecellServer}, updated by every session thread
+ * without locks and readable at any time.
+ */
+public final class ServerMetrics {
+
+  private final AtomicInteger active;
+  private final AtomicInteger peak;
+  private final LongAdder accepted;
+  private final LongAdder rejected;
+  private final LongAdder completed;
+  private final LongAdder timedOut;
+  private final LongAdder disconnected;
+
+  /**
+   * Constructs metrics with every count at zero.
+   */
+  ServerMetrics() {
+    this.active = new AtomicInteger();
+    this.peak = new AtomicInteger();
+    this.accepted = new LongAdder();
+    this.rejected = new LongAdder();
+    this.completed = new LongAdder();
+    this.timedOut = new LongAdder();
+    this.disconnected = new LongAdder();
+  }
+
+  // counts a new session, returning false without counting it if the given cap is reached
+  boolean tryOpen(int maxSessions) {
+    int now;
+    do {
+      now = this.active.get();
+      if (now >= maxSessions) {
+        this.rejected.increment();
+        return false;
+      }
+    } while (!this.active.compareAndSet(now, now + 1));
+    this.peak.accumulateAndGet(now + 1, Math::max);
+    this.accepted.increment();
+    return true;
+  }
+
+  // counts a session that played until the game was won or quit
+  void complete() {
+    this.completed.increment();
+    this.active.decrementAndGet();
+  }
+
+  // counts a session closed for being idle too long
+  void timeOut() {
+    this.timedOut.increment();
+    this.active.decrementAndGet();
+  }
+
+  // counts a session whose client went away or sent no more input
+  void disconnect() {
+    this.disconnected.increment();
+    this.active.decrementAndGet();
+  }
+
+  // returns the number of sessions open now
+  public int getActiveSessions() {
+    return this.active.get();
+  }
+
+  // returns the most sessions that were open at once
+  public int getPeakSessions() {
+    return this.peak.get();
+  }
+
+  // returns the number of sessions accepted
+  public long getAcceptedSessions() {
+    return this.accepted.sum();
+  }
+
+  // returns the number of connections turned away because the server was full
+  public long getRejectedSessions() {
+    return this.rejected.sum();
+  }
+
+  // returns the number of sessions that ended with the game won or quit
+  public long getCompletedSessions() {
+    return this.completed.sum();
+  }
+
+  // returns the number of sessions closed for being idle too long
+  public long getTimedOutSessions() {
+    return this.timedOut.sum();
+  }
+
+  // returns the number of sessions whose client went away first
+  public long getDisconnectedSessions() {
+    return this.disconnected.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "active " + this.getActiveSessions() + ", peak " + this.getPeakSessions()
+        + ", accepted " + this.getAcceptedSessions() + ", rejected " + this.getRejectedSessions()
+        + ", completed " + this.getCompletedSessions() + ", timed out "
+        + this.getTimedOutSessions() + ", disconnected " + this.getDisconnectedSessions();
+  }
+}
@@ -0,0 +1,150 @@
+package cs3500.freecell.solver;
+
+import cs3500.freecell.metrics.SolverProgressEvent;
+import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.FreecellModelCreator;
+import cs3500.freecell.model.hw02.CanonicalPosition;
+import cs3500.freecell.model.hw02.Card;
+import cs3500.freecell.model.hw02.PackedBoard;
+import java.util.PriorityQueue;
+
+/**
+ * A solver that explores positions in order of depth times a weight plus a heuristic estimate. A
+ * depth weight of 0 gives a greedy best-first search and a weight of 1 gives A*. Moves follow the
+ * rules of the model being solved, so a multi move model may move whole builds.
+ */
+public class BestFirstSolver implements FreecellSolver {
+
+  private static final int CHECK_INTERVAL = 256;
+  private static final int MEMORY_INTERVAL = 4096;
+  private static final int MAX_TABLE_ENTRIES = 1 << 22;
+
+  private final Heuristic heuristic;
+  private final int depthWeight;
+  private final long nodeBudget;
+  private final long timeBudgetMillis;
+
+  /**
+   * Constructs a greedy solver with the default heuristic, expanding at most a million positions
+   * in at most a minute.
+   */
+  public BestFirstSolver() {
+    this(defaultHeuristic(), 0, 1_000_000, 60_000);
+  }
+
+  /**
+   * Constructs a solver.
+   *
+   * @param heuristic        represents the estimate used to order the search
+   * @param depthWeight      represents how much each move already made counts against a position
+   * @param nodeBudget       represents the most positions the search may expand
+   * @param timeBudgetMillis represents the most time the search may take, in milliseconds
+   * @throws IllegalArgumentException if the heuristic is null or any number is negative
+   */
+  public BestFirstSolver(Heuristic heuristic, int depthWeight, long nodeBudget,
+      long timeBudgetMillis) {
+    if (heuristic == null) {
+      throw new IllegalArgumentException("Heuristic cannot be null");
+    }
+    if (depthWeight < 0 || nodeBudget < 0 || timeBudgetMillis < 0) {
+      throw new IllegalArgumentException("Weights and budgets cannot be negative");
+    }
+    this.heuristic = heuristic;
+    this.depthWeight = depthWeight;
+    this.nodeBudget = nodeBudget;
+    this.timeBudgetMillis = timeBudgetMillis;
+  }
+
+  /**
+   * Returns the heuristic the solver uses by default.
+   *
+   * @return the default heuristic
+   */
+  public static Heuristic defaultHeuristic() {
+    return new CompositeHeuristic(
+        new Heuristic[]{StandardHeuristic.CARDS_OUT_OF_PLACE, StandardHeuristic.BLOCKING_CARDS,
+            StandardHeuristic.OCCUPIED_OPEN_PILES, StandardHeuristic.OCCUPIED_CASCADES},
+        new int[]{5, 1, 1, 1});
+  }
+
+  @Override
+  public SolverResult solve(FreecellModel<Card> model) {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    PackedBoard start = PackedBoard.of(model);
+    MoveGenerator generator = new MoveGenerator(
+        model.getGameType() == FreecellModelCreator.GameType.MULTIMOVE);
+    long startTime = System.nanoTime();
+    long deadline = startTime + this.timeBudgetMillis * 1_000_000L;
+    Runtime runtime = Runtime.getRuntime();
+    long peakMemory = runtime.totalMemory() - runtime.freeMemory();
+
+    PriorityQueue<SearchNode> frontier = new PriorityQueue<SearchNode>();
+    // positions are remembered by canonical hash, so pile orders and suit swaps of a position
+    // already seen are not searched again
+    TranspositionTable seen = seenTable(this.nodeBudget);
+    int[] moves = new int[MoveGenerator.bufferSize(start)];
+    long expanded = 0;
+    long generated = 0;
+    long order = 0;
+    int peakFrontier = 1;
+    int startEstimate = this.heuristic.estimate(start);
+    frontier.add(new SearchNode(start, null, 0, 0, startEstimate, order++));
+    seen.store(CanonicalPosition.hash(start), 0, startEstimate, TranspositionTable.Bound.EXACT);
+    SolverResult.Outcome outcome = SolverResult.Outcome.UNSOLVABLE;
+    SearchNode solved = null;
+
+    while (!frontier.isEmpty()) {
+      SearchNode node = frontier.poll();
+      if (node.board.foundationsComplete()) {
+        outcome = SolverResult.Outcome.SOLVED;
+        solved = node;
+        break;
+      }
+      if (expanded >= this.nodeBudget) {
+        outcome = SolverResult.Outcome.NODE_BUDGET_EXCEEDED;
+        break;
+      }
+      if (expanded % CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+        outcome = SolverResult.Outcome.TIME_BUDGET_EXCEEDED;
+        break;
+      }
+      if (expanded % MEMORY_INTERVAL == 0) {
+        peakMemory = Math.max(peakMemory, runtime.totalMemory() - runtime.freeMemory());
+        SolverProgressEvent.emit(BestFirstSolver.class, expanded, generated, frontier.size(),
+            System.nanoTime() - startTime);
+      }
+      expanded++;
+      int count = generator.generate(node.board, moves);
+      for (int i = 0; i < count; i++) {
+        PackedBoard next = new PackedBoard(node.board);
+        next.apply(moves[i]);
+        int depth = node.depth + 1;
+        long key = CanonicalPosition.hash(next);
+        long entry = seen.probe(key);
+        // with a depth weight, a position reached again by a shorter line is searched again
+        if (entry == TranspositionTable.MISS
+            || this.depthWeight != 0 && TranspositionTable.depthOf(entry) > depth) {
+          int estimate = this.heuristic.estimate(next);
+          seen.store(key, depth, estimate, TranspositionTable.Bound.EXACT);
+          frontier.add(new SearchNode(next, node, moves[i], depth,
+              depth * this.depthWeight + estimate, order++));
+          generated++;
+        }
+      }
+      peakFrontier = Math.max(peakFrontier, frontier.size());
+    }
+    peakMemory = Math.max(peakMemory, runtime.totalMemory() - runtime.freeMemory());
+    SolverStatistics statistics = new SolverStatistics(expanded, generated,
+        System.nanoTime() - startTime, peakMemory, peakFrontier);
+    return new SolverResult(outcome, solved == null ? new int[0] : solved.path(),
+        statistics);
+  }
+
+  // returns a table of seen positions with room for about four positions per node of the budget,
+  // which is more than a search generates, up to a limit of 64 MiB
+  static TranspositionTable seenTable(long nodeBudget) {
+    return new TranspositionTable((int) Math.max(2, Math.min(nodeBudget * 4, MAX_TABLE_ENTRIES)));
+  }
+}
@@ -0,0 +1,41 @@
+package cs3500.freecell.solver;
+
+import cs3500.freecell.model.hw02.PackedBoard;
+
+/**
+ * Represents a weighted sum of several heuristics.
+ */
+public final class CompositeHeuristic implements Heuristic {
+
+  private final Heuristic[] parts;
+  private final int[] weights;
+
+  /**
+   * Constructs a heuristic that adds up the given heuristics, each multiplied by its weight.
+   *
+   * @param parts   represents the heuristics to add up
+   * @param weights represents the weight of each heuristic, in the same order
+   * @throws IllegalArgumentException if the arrays are null, contain null or differ in length
+   */
+  public CompositeHeuristic(Heuristic[] parts, int[] weights) {
+    if (parts == null || weights == null || parts.length != weights.length) {
+      throw new IllegalArgumentException("Every heuristic needs exactly one weight");
+    }
+    for (Heuristic part : parts) {
+      if (part == null) {
+        throw new IllegalArgumentException("Heuristics cannot be null");
+      }
+    }
+    this.parts = parts.clone();
+    this.weights = weights.clone();
+  }
+
+  @Override
+  public int estimate(PackedBoard board) {
+    int total = 0;
+    for (int i = 0; i < this.parts.length; i++) {
+      total += this.weights[i] * this.parts[i].estimate(board);
+    }
+    return total;
+  }
+}
@@ -0,0 +1,23 @@
+package cs3500.freecell.solver;
+
+import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.hw02.Card;
+
+/**
+ * Interface for a freecell solver. An implementation searches for a sequence of moves that wins
+ * the game from the current position of a started model.
+ */
+public interface FreecellSolver {
+
+  /**
+   * Search for a sequence of moves that wins the game from the current position of the given
+   * model. The model itself is not changed.
+   *
+   * @param model the model whose position should be solved
+   * @return the outcome of the search, including the winning moves if one was found
+   * @throws IllegalArgumentException if the model is null
+   * @throws IllegalStateException    if the game has not started
+   */
+  SolverResult solve(FreecellModel<Card> model)
+      throws IllegalArgumentException, IllegalStateException;
+}
@@ -0,0 +1,18 @@
+package cs3500.freecell.solver;
+
+import cs3500.freecell.model.hw02.PackedBoard;
+
+/**
+ * Represents an estimate of how far a board is from being solved, used to order a search. Lower
+ * estimates are explored first.
+ */
+public interface Heuristic {
+
+  /**
+   * Estimate how far the given board is from being solved.
+   *
+   * @param board the board to estimate
+   * @return a non-negative estimate, 0 when every card is on a foundation pile
+   */
+  int estimate(PackedBoard board);
+}
@@ -0,0 +1,180 @@
+package cs3500.freecell.solver;
+
+import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.FreecellModelCreator;
+import cs3500.freecell.model.Move;
+import cs3500.freecell.model.hw02.Card;
+import cs3500.freecell.model.hw02.ConcurrentFreecellModel;
+import cs3500.freecell.model.hw02.PackedBoard;
+import cs3500.freecell.model.hw02.SimpleFreecellModel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Suggests the next move of a winning line for the position of a game. Each answer is kept in a
+ * cache of fixed size that drops the least recently used position first, keyed by the hash of the
+ * position. When a search finds a winning line, the next move from every position along it is
+ * cached, so a player who follows the hints is answered from the cache for the rest of the game.
+ * A position the solver proved unsolvable is cached as having no hint, which is only sound for a
+ * solver whose UNSOLVABLE is a proof under the rules of the model, as it is for the solvers of
+ * this package under both rule sets.
+ *
+ * <p>A service may be shared by many threads. Searches run outside the lock that guards the
+ * cache, so a slow search does not hold up hints for positions already seen.
+ */
+public final class HintService {
+
+  private static final int NO_HINT = -1;
+  private static final long PILES_SALT = 0x9e3779b97f4a7c15L;
+  private static final long MULTI_SALT = 0xc2b2ae3d27d4eb4fL;
+
+  private final FreecellSolver solver;
+  private final Map<Long, Integer> cache;
+  // INVARIANT: cache maps position keys to the packed next move, or NO_HINT, and is only used
+  // while holding the lock of this service
+  private long hits;
+  private long misses;
+
+  /**
+   * Constructs a hint service that searches with a {@link BestFirstSolver} and remembers up to
+   * 65536 positions.
+   */
+  public HintService() {
+    this(new BestFirstSolver(), 1 << 16);
+  }
+
+  /**
+   * Constructs a hint service.
+   *
+   * @param solver   represents the solver used for positions that are not cached
+   * @param capacity represents the most positions the cache may hold
+   * @throws IllegalArgumentException if the solver is null or the capacity is not positive
+   */
+  public HintService(FreecellSolver solver, int capacity) {
+    if (solver == null) {
+      throw new IllegalArgumentException("Solver cannot be null");
+    }
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.solver = solver;
+    this.cache = new LinkedHashMap<Long, Integer>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+        return this.size() > capacity;
+      }
+    };
+    this.hits = 0;
+    this.misses = 0;
+  }
+
+  /**
+   * Returns the next move of a winning line from the current position of the given model,
+   * searching for one only if the position is not cached. The model itself is not changed. The
+   * hint for a {@link ConcurrentFreecellModel} is for its latest published position.
+   *
+   * @param model the model to suggest a move for
+   * @return the suggested move, or null if the game is over or no winning line was found
+   * @throws IllegalArgumentException if the model is null
+   * @throws IllegalStateException    if the game has not started
+   */
+  public Move hint(FreecellModel<Card> model)
+      throws IllegalArgumentException, IllegalStateException {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    if (model instanceof ConcurrentFreecellModel) {
+      // searches a copy of one published position, so that the key, the search and the cached
+      // line all see the same position while the player keeps moving
+      model = ((ConcurrentFreecellModel) model).fork();
+    }
+    if (model.getNumCascadePiles() == -1) {
+      throw new IllegalStateException("Game has not yet started");
+    }
+    if (model.isGameOver()) {
+      return null;
+    }
+    boolean multiMove = model.getGameType() == FreecellModelCreator.GameType.MULTIMOVE;
+    PackedBoard board = null;
+    long hash;
+    if (model instanceof SimpleFreecellModel) {
+      hash = ((SimpleFreecellModel) model).getPositionHash();
+    } else {
+      board = PackedBoard.of(model);
+      hash = board.hash();
+    }
+    long key = keyOf(hash, model.getNumCascadePiles(), model.getNumOpenPiles(), multiMove);
+    Integer cached;
+    synchronized (this) {
+      cached = this.cache.get(key);
+      if (cached == null) {
+        this.misses++;
+      } else {
+        this.hits++;
+      }
+    }
+    if (cached != null) {
+      return cached == NO_HINT ? null : Move.unpack(cached);
+    }
+
+    SolverResult result = this.solver.solve(model);
+    if (result.isSolved()) {
+      return Move.unpack(this.cacheLine(board == null ? PackedBoard.of(model) : board,
+          result.getPackedMoves(), multiMove));
+    }
+    if (result.getOutcome() == SolverResult.Outcome.UNSOLVABLE) {
+      synchronized (this) {
+        this.cache.put(key, NO_HINT);
+      }
+    }
+    // a search that ran out of budget is not cached, so a later request may try again
+    return null;
+  }
+
+  // caches the next move from every position along the given winning line of packed moves,
+  // which starts from the given board, and returns the first move packed
+  private int cacheLine(PackedBoard start, int[] line, boolean multiMove) {
+    PackedBoard board = new PackedBoard(start);
+    int numCascades = board.numCascades();
+    int numOpen = board.numOpen();
+    long[] keys = new long[line.length];
+    for (int i = 0; i < line.length; i++) {
+      keys[i] = keyOf(board.hash(), numCascades, numOpen, multiMove);
+      board.apply(line[i]);
+    }
+    synchronized (this) {
+      // the end of the line is cached last, so the positions nearest the player are the last to
+      // be dropped
+      for (int i = keys.length - 1; i >= 0; i--) {
+        this.cache.put(keys[i], line[i]);
+      }
+    }
+    return line[0];
+  }
+
+  // returns the cache key of a position, which also tells apart the numbers of piles and rules
+  private static long keyOf(long hash, int numCascades, int numOpen, boolean multiMove) {
+    return hash + (numCascades * (long) Move.MAX_PILES + numOpen) * PILES_SALT
+        ^ (multiMove ? MULTI_SALT : 0);
+  }
+
+  // returns the number of positions cached
+  public synchronized int size() {
+    return this.cache.size();
+  }
+
+  // returns the number of hints answered from the cache
+  public synchronized long getHits() {
+    return this.hits;
+  }
+
+  // returns the number of hints that needed a search
+  public synchronized long getMisses() {
+    return this.misses;
+  }
+
+  // forgets every cached position
+  public synchronized void clear() {
+    this.cache.clear();
+  }
+}
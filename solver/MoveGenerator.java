@@ -0,0 +1,192 @@
+package cs3500.freecell.solver;
+
+import cs3500.freecell.model.Move;
+import cs3500.freecell.model.PileType;
+import cs3500.freecell.model.hw02.PackedBoard;
+
+/**
+ * Generates the moves a search may make from a board, following the rules of either the single
+ * card model or the multi card model, including the moves out of the foundation piles that only
+ * the multi card model allows. Moves that can never help a search are left out: moving a whole
+ * cascade onto an empty cascade, which only swaps two piles, moving a card between open piles,
+ * choosing any empty pile but the first of its kind, since empty piles of a kind are
+ * interchangeable, and moving a foundation card to an open pile, since from there it can only go
+ * on to a cascade pile, which it could have done directly, or back where it came from. Any
+ * winning line can therefore be played with the generated moves alone, so a search that runs out
+ * of moves without winning has proven the position unsolvable.
+ */
+final class MoveGenerator {
+
+  private final boolean multiMove;
+
+  /**
+   * Constructs a move generator.
+   *
+   * @param multiMove true to allow moving builds of several cards, as the multi move model does
+   */
+  MoveGenerator(boolean multiMove) {
+    this.multiMove = multiMove;
+  }
+
+  /**
+   * Returns a buffer size large enough for every move {@link #generate} can write for the board.
+   *
+   * @param board the board moves will be generated from
+   * @return the buffer size
+   */
+  static int bufferSize(PackedBoard board) {
+    int numCascades = board.numCascades();
+    int numOpen = board.numOpen();
+    return (numOpen + numCascades) * (numCascades + 2) + numCascades * PackedBoard.RANKS
+        + PackedBoard.NUM_FOUNDATIONS * numCascades;
+  }
+
+  /**
+   * Writes every move to consider from the given board into the given buffer as packed moves.
+   *
+   * @param board  the board to generate moves from
+   * @param buffer the buffer to write the packed moves to
+   * @return the number of moves written
+   */
+  int generate(PackedBoard board, int[] buffer) {
+    int count = 0;
+    int numCascades = board.numCascades();
+    int numOpen = board.numOpen();
+    int emptyOpen = -1;
+    for (int i = numOpen - 1; i >= 0; i--) {
+      if (board.openAt(i) == PackedBoard.EMPTY) {
+        emptyOpen = i;
+      }
+    }
+    int capacity = this.multiMove
+        ? (board.emptyOpen() + 1) << Math.min(board.emptyCascades(), 4) : 1;
+
+    // moves to the foundation piles
+    for (int i = 0; i < numOpen; i++) {
+      int card = board.openAt(i);
+      int dest = card == PackedBoard.EMPTY ? -1 : foundationFor(board, card);
+      if (dest != -1) {
+        buffer[count++] = Move.pack(PileType.OPEN, i, 0, PileType.FOUNDATION, dest, 1);
+      }
+    }
+    for (int i = 0; i < numCascades; i++) {
+      int height = board.height(i);
+      int dest = height == 0 ? -1 : foundationFor(board, board.cascadeTop(i));
+      if (dest != -1) {
+        buffer[count++] = Move.pack(PileType.CASCADE, i, height - 1, PileType.FOUNDATION, dest, 1);
+      }
+    }
+
+    // moves onto the cascade piles
+    for (int i = 0; i < numCascades; i++) {
+      int height = board.height(i);
+      if (height == 0) {
+        continue;
+      }
+      int run = this.multiMove ? runLength(board, i) : 1;
+      int topValue = PackedBoard.valueOf(board.cascadeTop(i));
+      boolean emptyTargetTried = false;
+      for (int d = 0; d < numCascades; d++) {
+        if (d == i) {
+          continue;
+        }
+        int target = board.cascadeTop(d);
+        if (target == PackedBoard.EMPTY) {
+          if (!this.multiMove || emptyTargetTried) {
+            continue;
+          }
+          emptyTargetTried = true;
+          int most = Math.min(Math.min(run, capacity), height - 1);
+          for (int k = 1; k <= most; k++) {
+            buffer[count++] = Move.pack(PileType.CASCADE, i, height - k, PileType.CASCADE, d, k);
+          }
+        } else {
+          int k = PackedBoard.valueOf(target) - topValue;
+          if (k >= 1 && k <= run && k <= capacity
+              && stacks(board.cascadeAt(i, height - k), target)) {
+            buffer[count++] = Move.pack(PileType.CASCADE, i, height - k, PileType.CASCADE, d, k);
+          }
+        }
+      }
+    }
+    for (int i = 0; i < numOpen; i++) {
+      int card = board.openAt(i);
+      if (card == PackedBoard.EMPTY) {
+        continue;
+      }
+      boolean emptyTargetTried = false;
+      for (int d = 0; d < numCascades; d++) {
+        int target = board.cascadeTop(d);
+        if (target == PackedBoard.EMPTY) {
+          if (this.multiMove && !emptyTargetTried) {
+            emptyTargetTried = true;
+            buffer[count++] = Move.pack(PileType.OPEN, i, 0, PileType.CASCADE, d, 1);
+          }
+        } else if (stacks(card, target)) {
+          buffer[count++] = Move.pack(PileType.OPEN, i, 0, PileType.CASCADE, d, 1);
+        }
+      }
+    }
+
+    // moves out of the foundation piles onto the cascade piles
+    if (this.multiMove) {
+      for (int i = 0; i < PackedBoard.NUM_FOUNDATIONS; i++) {
+        int card = board.foundationTop(i);
+        if (card == PackedBoard.EMPTY) {
+          continue;
+        }
+        int cardIndex = board.foundationSize(i) - 1;
+        boolean emptyTargetTried = false;
+        for (int d = 0; d < numCascades; d++) {
+          int target = board.cascadeTop(d);
+          if (target == PackedBoard.EMPTY ? !emptyTargetTried : stacks(card, target)) {
+            emptyTargetTried |= target == PackedBoard.EMPTY;
+            buffer[count++] = Move.pack(PileType.FOUNDATION, i, cardIndex, PileType.CASCADE, d,
+                1);
+          }
+        }
+      }
+    }
+
+    // moves to the first empty open pile
+    if (emptyOpen != -1) {
+      for (int i = 0; i < numCascades; i++) {
+        int height = board.height(i);
+        if (height > 0) {
+          buffer[count++] = Move.pack(PileType.CASCADE, i, height - 1, PileType.OPEN, emptyOpen,
+              1);
+        }
+      }
+    }
+    return count;
+  }
+
+  // returns the index of the foundation pile the given card can be placed on, or -1
+  private static int foundationFor(PackedBoard board, int card) {
+    boolean ace = PackedBoard.valueOf(card) == 1;
+    for (int i = 0; i < PackedBoard.NUM_FOUNDATIONS; i++) {
+      int top = board.foundationTop(i);
+      if (ace ? top == PackedBoard.EMPTY : top == card - 1) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // returns the number of cards at the top of the given cascade pile that form a build
+  private static int runLength(PackedBoard board, int pile) {
+    int height = board.height(pile);
+    int run = 1;
+    while (run < height
+        && stacks(board.cascadeAt(pile, height - run), board.cascadeAt(pile, height - run - 1))) {
+      run++;
+    }
+    return run;
+  }
+
+  // returns true if the given card can be placed on the card below it in a cascade
+  static boolean stacks(int card, int below) {
+    return PackedBoard.isRed(card) != PackedBoard.isRed(below)
+        && PackedBoard.valueOf(below) - PackedBoard.valueOf(card) == 1;
+  }
+}
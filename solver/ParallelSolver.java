@@ -0,0 +1,284 @@
+package cs3500.freecell.solver;
+
+import cs3500.freecell.metrics.SolverProgressEvent;
+import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.FreecellModelCreator;
+import cs3500.freecell.model.hw02.CanonicalPosition;
+import cs3500.freecell.model.hw02.Card;
+import cs3500.freecell.model.hw02.PackedBoard;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A best-first solver that spreads its search over the threads of a {@link ForkJoinPool}. Each
+ * task searches its own frontier best first and hands half of it to a new task whenever the pool
+ * runs low on queued work, so idle threads steal from busy ones. All tasks share one
+ * {@link TranspositionTable} of the canonical hashes of seen positions, and every task stops as
+ * soon as any of them reaches a won position.
+ */
+public class ParallelSolver implements FreecellSolver {
+
+  private static final int SPLIT_INTERVAL = 64;
+  private static final int CHECK_INTERVAL = 256;
+  private static final int PROGRESS_INTERVAL = 4096;
+
+  private final int threads;
+  private final Heuristic heuristic;
+  private final long nodeBudget;
+  private final long timeBudgetMillis;
+
+  /**
+   * Constructs a parallel solver with the default heuristic, using one thread per processor and
+   * expanding at most a million positions in at most a minute.
+   */
+  public ParallelSolver() {
+    this(Runtime.getRuntime().availableProcessors(), BestFirstSolver.defaultHeuristic(),
+        1_000_000, 60_000);
+  }
+
+  /**
+   * Constructs a parallel solver.
+   *
+   * @param threads          represents the number of threads to search with
+   * @param heuristic        represents the estimate used to order the search
+   * @param nodeBudget       represents the most positions all threads together may expand
+   * @param timeBudgetMillis represents the most time the search may take, in milliseconds
+   * @throws IllegalArgumentException if the heuristic is null, there are no threads or a budget
+   *                                  is negative
+   */
+  public ParallelSolver(int threads, Heuristic heuristic, long nodeBudget,
+      long timeBudgetMillis) {
+    if (heuristic == null) {
+      throw new IllegalArgumentException("Heuristic cannot be null");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("There must be at least 1 thread");
+    }
+    if (nodeBudget < 0 || timeBudgetMillis < 0) {
+      throw new IllegalArgumentException("Budgets cannot be negative");
+    }
+    this.threads = threads;
+    this.heuristic = heuristic;
+    this.nodeBudget = nodeBudget;
+    this.timeBudgetMillis = timeBudgetMillis;
+  }
+
+  @Override
+  public SolverResult solve(FreecellModel<Card> model) {
+    if (model == null) {
+      throw new IllegalArgumentException("Model cannot be null");
+    }
+    Search search = new Search(PackedBoard.of(model),
+        model.getGameType() == FreecellModelCreator.GameType.MULTIMOVE);
+    ForkJoinPool pool = new ForkJoinPool(this.threads);
+    try {
+      pool.invoke(search.root());
+    } finally {
+      pool.shutdownNow();
+    }
+    return search.result();
+  }
+
+  /**
+   * Solves the given model once with each thread count from 1 up to the thread count of this
+   * solver, doubling each time and always ending with the full count.
+   *
+   * @param model the model whose position should be solved
+   * @return the results of each run, to compare how the search speeds up with more threads
+   * @throws IllegalArgumentException if the model is null
+   * @throws IllegalStateException    if the game has not started
+   */
+  public ScalingReport measureScaling(FreecellModel<Card> model) {
+    List<Integer> counts = new ArrayList<Integer>();
+    List<SolverResult> results = new ArrayList<SolverResult>();
+    for (int n = 1; n <= this.threads; n = n == this.threads ? n + 1
+        : Math.min(n * 2, this.threads)) {
+      counts.add(n);
+      results.add(new ParallelSolver(n, this.heuristic, this.nodeBudget, this.timeBudgetMillis)
+          .solve(model));
+    }
+    return new ScalingReport(counts, results);
+  }
+
+  /**
+   * Represents the state shared by every task of one parallel search.
+   */
+  private final class Search {
+
+    private final PackedBoard start;
+    private final MoveGenerator generator;
+    private final TranspositionTable seen;
+    private final AtomicReference<SearchNode> solution;
+    private final AtomicReference<SolverResult.Outcome> stopped;
+    private final AtomicLong expanded;
+    private final AtomicLong generated;
+    private final AtomicInteger peakFrontier;
+    private final AtomicLong peakMemory;
+    private final long startTime;
+    private final long deadline;
+
+    private Search(PackedBoard start, boolean multiMove) {
+      this.start = start;
+      this.generator = new MoveGenerator(multiMove);
+      this.seen = BestFirstSolver.seenTable(nodeBudget);
+      this.solution = new AtomicReference<SearchNode>();
+      this.stopped = new AtomicReference<SolverResult.Outcome>();
+      this.expanded = new AtomicLong();
+      this.generated = new AtomicLong();
+      this.peakFrontier = new AtomicInteger(1);
+      this.peakMemory = new AtomicLong(usedMemory());
+      this.startTime = System.nanoTime();
+      this.deadline = this.startTime + timeBudgetMillis * 1_000_000L;
+    }
+
+    // returns the task that starts the search
+    private SearchTask root() {
+      int estimate = heuristic.estimate(this.start);
+      this.seen.store(CanonicalPosition.hash(this.start), 0, estimate,
+          TranspositionTable.Bound.EXACT);
+      PriorityQueue<SearchNode> frontier = new PriorityQueue<SearchNode>();
+      frontier.add(new SearchNode(this.start, null, 0, 0, estimate, 0));
+      return new SearchTask(this, frontier);
+    }
+
+    // claims the expansion of one position from the node budget, which every task shares, and
+    // returns false if the budget is spent, so that all tasks together never expand more
+    private boolean claimExpansion() {
+      long claimed;
+      do {
+        claimed = this.expanded.get();
+        if (claimed >= nodeBudget) {
+          return false;
+        }
+      } while (!this.expanded.compareAndSet(claimed, claimed + 1));
+      return true;
+    }
+
+    // returns true once any task has found a solution or a budget has run out
+    private boolean isOver() {
+      return this.solution.get() != null || this.stopped.get() != null;
+    }
+
+    // returns the outcome of the finished search
+    private SolverResult result() {
+      SearchNode solved = this.solution.get();
+      SolverResult.Outcome outcome;
+      if (solved != null) {
+        outcome = SolverResult.Outcome.SOLVED;
+      } else if (this.stopped.get() != null) {
+        outcome = this.stopped.get();
+      } else {
+        outcome = SolverResult.Outcome.UNSOLVABLE;
+      }
+      this.peakMemory.accumulateAndGet(usedMemory(), Math::max);
+      SolverStatistics statistics = new SolverStatistics(this.expanded.get(),
+          this.generated.get(), System.nanoTime() - this.startTime, this.peakMemory.get(),
+          this.peakFrontier.get());
+      return new SolverResult(outcome, solved == null ? new int[0] : solved.path(),
+          statistics);
+    }
+  }
+
+  /**
+   * Represents one share of the frontier of a parallel search.
+   */
+  private final class SearchTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Search search;
+    private final PriorityQueue<SearchNode> frontier;
+
+    private SearchTask(Search search, PriorityQueue<SearchNode> frontier) {
+      this.search = search;
+      this.frontier = frontier;
+    }
+
+    @Override
+    protected void compute() {
+      List<SearchTask> forked = new ArrayList<SearchTask>();
+      int[] moves = new int[MoveGenerator.bufferSize(this.search.start)];
+      long local = 0;
+      long generated = 0;
+      while (!this.frontier.isEmpty() && !this.search.isOver()) {
+        SearchNode node = this.frontier.poll();
+        if (node.board.foundationsComplete()) {
+          this.search.solution.compareAndSet(null, node);
+          break;
+        }
+        if (!this.search.claimExpansion()) {
+          this.search.stopped.compareAndSet(null, SolverResult.Outcome.NODE_BUDGET_EXCEEDED);
+          break;
+        }
+        local++;
+        if (local % CHECK_INTERVAL == 0) {
+          if (System.nanoTime() - this.search.deadline > 0) {
+            this.search.stopped.compareAndSet(null, SolverResult.Outcome.TIME_BUDGET_EXCEEDED);
+          }
+          this.search.peakMemory.accumulateAndGet(usedMemory(), Math::max);
+          this.search.peakFrontier.accumulateAndGet(this.frontier.size(), Math::max);
+        }
+        if (local % PROGRESS_INTERVAL == 0) {
+          // each task reports its own share of the frontier
+          SolverProgressEvent.emit(ParallelSolver.class, this.search.expanded.get(),
+              this.search.generated.get() + generated, this.frontier.size(),
+              System.nanoTime() - this.search.startTime);
+        }
+        int count = this.search.generator.generate(node.board, moves);
+        for (int i = 0; i < count; i++) {
+          PackedBoard next = new PackedBoard(node.board);
+          next.apply(moves[i]);
+          long key = CanonicalPosition.hash(next);
+          // two tasks that reach the same position at once may both search it, which costs a
+          // little work but never misses a position
+          if (this.search.seen.probe(key) == TranspositionTable.MISS) {
+            int depth = node.depth + 1;
+            int estimate = heuristic.estimate(next);
+            this.search.seen.store(key, depth, estimate, TranspositionTable.Bound.EXACT);
+            generated++;
+            this.frontier.add(new SearchNode(next, node, moves[i], depth, estimate, generated));
+          }
+        }
+        if (local % SPLIT_INTERVAL == 0 && this.frontier.size() > 1
+            && getSurplusQueuedTaskCount() < 1) {
+          SearchTask task = new SearchTask(this.search, this.split());
+          task.fork();
+          forked.add(task);
+        }
+      }
+      this.search.generated.addAndGet(generated);
+      for (SearchTask task : forked) {
+        task.join();
+      }
+    }
+
+    // removes every other node from the frontier, best first, and returns them
+    private PriorityQueue<SearchNode> split() {
+      int size = this.frontier.size();
+      List<SearchNode> kept = new ArrayList<SearchNode>(size / 2 + 1);
+      PriorityQueue<SearchNode> given = new PriorityQueue<SearchNode>(size / 2 + 1);
+      for (int i = 0; i < size; i++) {
+        SearchNode node = this.frontier.poll();
+        if (i % 2 == 0) {
+          kept.add(node);
+        } else {
+          given.add(node);
+        }
+      }
+      this.frontier.addAll(kept);
+      return given;
+    }
+  }
+
+  // returns the heap memory currently in use, in bytes
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,63 @@
+package cs3500.freecell.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents how a parallel search of one position speeds up as threads are added. Each run
+ * solves the same position with a different thread count.
+ */
+public final class ScalingReport {
+
+  private final List<Integer> threadCounts;
+  private final List<SolverResult> results;
+
+  /**
+   * Constructs a scaling report.
+   *
+   * @param threadCounts represents the thread count of each run, starting with 1
+   * @param results      represents the result of each run, in the same order
+   */
+  ScalingReport(List<Integer> threadCounts, List<SolverResult> results) {
+    this.threadCounts = Collections.unmodifiableList(new ArrayList<Integer>(threadCounts));
+    this.results = Collections.unmodifiableList(new ArrayList<SolverResult>(results));
+  }
+
+  // returns the thread count of each run
+  public List<Integer> getThreadCounts() {
+    return this.threadCounts;
+  }
+
+  // returns the result of each run
+  public List<SolverResult> getResults() {
+    return this.results;
+  }
+
+  /**
+   * Returns how many times faster the given run finished than the single threaded run.
+   *
+   * @param run the index of the run
+   * @return the speedup of the run
+   * @throws IllegalArgumentException if there is no such run
+   */
+  public double getSpeedup(int run) {
+    if (run < 0 || run >= this.results.size()) {
+      throw new IllegalArgumentException("Run index is out of range");
+    }
+    double base = this.results.get(0).getStatistics().getElapsedNanos();
+    return base / this.results.get(run).getStatistics().getElapsedNanos();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder report = new StringBuilder("threads  outcome               seconds  speedup");
+    for (int i = 0; i < this.results.size(); i++) {
+      SolverResult result = this.results.get(i);
+      report.append(String.format("%n%7d  %-20s %8.3f %8.2f", this.threadCounts.get(i),
+          result.getOutcome(), result.getStatistics().getElapsedNanos() / 1e9,
+          this.getSpeedup(i)));
+    }
+    return report.toString();
+  }
+}
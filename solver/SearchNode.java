@@ -0,0 +1,54 @@
+package cs3500.freecell.solver;
+
+import cs3500.freecell.model.hw02.PackedBoard;
+
+/**
+ * Represents a position reached during a search and the move that reached it. Nodes never change
+ * once made, so a search running on several threads may share them.
+ */
+final class SearchNode implements Comparable<SearchNode> {
+
+  final PackedBoard board;
+  final SearchNode parent;
+  final int move;
+  final int depth;
+  final int priority;
+  final long order;
+
+  /**
+   * Constructs a search node.
+   *
+   * @param board    represents the position
+   * @param parent   represents the node the move was made from, or null for the start
+   * @param move     represents the packed move that reached the position
+   * @param depth    represents the number of moves made since the start
+   * @param priority represents the search order of the node, lower first
+   * @param order    represents when the node was made, to break ties in priority
+   */
+  SearchNode(PackedBoard board, SearchNode parent, int move, int depth, int priority,
+      long order) {
+    this.board = board;
+    this.parent = parent;
+    this.move = move;
+    this.depth = depth;
+    this.priority = priority;
+    this.order = order;
+  }
+
+  // returns the packed moves that lead from the starting position to this one, in order
+  int[] path() {
+    int[] moves = new int[this.depth];
+    for (SearchNode n = this; n.parent != null; n = n.parent) {
+      moves[n.depth - 1] = n.move;
+    }
+    return moves;
+  }
+
+  @Override
+  public int compareTo(SearchNode other) {
+    if (this.priority != other.priority) {
+      return Integer.compare(this.priority, other.priority);
+    }
+    return Long.compare(this.order, other.order);
+  }
+}
@@ -0,0 +1,432 @@
+package cs3500.freecell.solver;
+
+import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.Move;
+import cs3500.freecell.model.hw02.Card;
+import cs3500.freecell.model.hw02.DealGenerator;
+import cs3500.freecell.model.hw02.SimpleFreecellModel;
+import cs3500.freecell.model.hw04.MultiMoveModel;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * An on-disk store of solver results, keyed by deal. The store is a directory holding two files:
+ * a fixed-width index that is memory mapped and searched by open addressing, and a heap that
+ * solutions are appended to. Opening a store maps the index and reads nothing else, and looking
+ * up a deal touches one or two index slots and then only the solution asked for.
+ *
+ * <p>Any number of threads may read at once, without locks, while one thread at a time writes.
+ * Each index slot is a key and a packed entry of 8 bytes each. A writer stores the entry before
+ * it publishes the key, and replaces an entry with a single 8 byte write, so a reader never sees
+ * half an entry. When the index grows past three quarters full it is rebuilt at twice the size
+ * into a new file, and readers still holding the old mapping keep seeing valid entries.
+ */
+public final class SolutionStore implements Closeable {
+
+  private static final String INDEX_FILE = "index.fcs";
+  private static final String HEAP_FILE = "heap.fcs";
+  // "FCSOLV02", raised from 01 when the solvers began moving cards out of the foundation piles
+  // under the multi move rules, since stores written before could hold unsolvable results that
+  // were never proven
+  private static final long MAGIC = 0x4643534f4c563032L;
+  private static final int HEADER_SIZE = 16;
+  private static final int SLOT_SIZE = 16;
+  private static final int MIN_CAPACITY = 1024;
+  private static final VarHandle LONGS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+  private static final SolverResult.Outcome[] OUTCOMES = SolverResult.Outcome.values();
+
+  // an entry packs the heap offset of its moves in the high 40 bits, the number of moves in the
+  // next 20 and the outcome in the low 4
+  private static final int MOVES_SHIFT = 4;
+  private static final int OFFSET_SHIFT = 24;
+  private static final int MAX_MOVES = (1 << 20) - 1;
+
+  private final Path directory;
+  private final FileChannel heap;
+  private volatile MappedByteBuffer index;
+  private int mask;
+  private int count;
+  private long heapEnd;
+  private final ThreadLocal<ByteBuffer> readBuffers;
+
+  private SolutionStore(Path directory, FileChannel heap, MappedByteBuffer index) {
+    this.directory = directory;
+    this.heap = heap;
+    this.index = index;
+    this.mask = index.getInt(8) - 1;
+    this.count = index.getInt(12);
+    this.readBuffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(4096));
+  }
+
+  /**
+   * Opens the store in the given directory, creating an empty store there if there is none.
+   *
+   * @param directory the directory holding the store
+   * @return the open store
+   * @throws IllegalArgumentException if the directory is null
+   * @throws IOException              if the files cannot be opened or are not a store
+   */
+  public static SolutionStore open(Path directory) throws IOException {
+    if (directory == null) {
+      throw new IllegalArgumentException("Directory cannot be null");
+    }
+    Files.createDirectories(directory);
+    Path indexPath = directory.resolve(INDEX_FILE);
+    if (!Files.exists(indexPath)) {
+      createIndex(indexPath, MIN_CAPACITY).force();
+    }
+    MappedByteBuffer index = mapIndex(indexPath);
+    if (index.capacity() < HEADER_SIZE || index.getLong(0) != MAGIC
+        || Integer.bitCount(index.getInt(8)) != 1
+        || index.capacity() != HEADER_SIZE + (long) index.getInt(8) * SLOT_SIZE) {
+      throw new IOException("Not a solution store index");
+    }
+    FileChannel heap = FileChannel.open(directory.resolve(HEAP_FILE), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    SolutionStore store = new SolutionStore(directory, heap, index);
+    store.heapEnd = heap.size();
+    return store;
+  }
+
+  // creates an empty index file with the given number of slots and returns its mapping
+  private static MappedByteBuffer createIndex(Path path, int capacity) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      MappedByteBuffer index = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+          HEADER_SIZE + (long) capacity * SLOT_SIZE);
+      index.putLong(0, MAGIC);
+      index.putInt(8, capacity);
+      index.putInt(12, 0);
+      return index;
+    }
+  }
+
+  // maps the whole of an existing index file
+  private static MappedByteBuffer mapIndex(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      return channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    }
+  }
+
+  /**
+   * Returns the key of a deal, which depends on the order of the deck and on the rules and pile
+   * counts it is played with, since a deal may be solvable under some and not others.
+   *
+   * @param deck        the deck in dealing order
+   * @param numCascades the number of cascade piles
+   * @param numOpen     the number of open piles
+   * @param multiMove   true for the multi move rules
+   * @return the key, never 0
+   * @throws IllegalArgumentException if the deck is null
+   */
+  public static long keyOf(List<Card> deck, int numCascades, int numOpen, boolean multiMove) {
+    if (deck == null) {
+      throw new IllegalArgumentException("Deck cannot be null");
+    }
+    long key = mix(numCascades * 0x100000001b3L + numOpen * 31L + (multiMove ? 1 : 0));
+    for (Card card : deck) {
+      key = mix(key + card.ordinal() + 1);
+    }
+    return key == 0 ? 1 : key;
+  }
+
+  /**
+   * Returns the key of the classic deal with the given number, which is the key of its deck.
+   *
+   * @param dealNumber  the number of the classic deal
+   * @param numCascades the number of cascade piles
+   * @param numOpen     the number of open piles
+   * @param multiMove   true for the multi move rules
+   * @return the key, never 0
+   * @throws IllegalArgumentException if the deal number is not positive
+   */
+  public static long keyOf(int dealNumber, int numCascades, int numOpen, boolean multiMove) {
+    return keyOf(DealGenerator.classicDeal(dealNumber), numCascades, numOpen, multiMove);
+  }
+
+  // scrambles the bits of the given value, the finalizer of SplitMix64
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Stores the result of solving the deal with the given key, replacing any earlier result. Only
+   * the outcome and the moves are kept. A search that ran out of budget is no answer for the deal,
+   * so only SOLVED and UNSOLVABLE results may be stored, and an UNSOLVABLE result is kept for good,
+   * so it must come from a solver that tries every move that could help under the rules of the
+   * deal, as the solvers of this package do. Safe to call from several threads, which take
+   * turns.
+   *
+   * @param key    the key of the deal, see {@link #keyOf}
+   * @param result the result to store
+   * @throws IllegalArgumentException if the key is 0, the result is null, its search ran out of
+   *                                  budget or it has too many moves
+   * @throws IOException              if the store cannot be written
+   */
+  public synchronized void put(long key, SolverResult result) throws IOException {
+    if (key == 0 || result == null || result.getMoves().size() > MAX_MOVES) {
+      throw new IllegalArgumentException("Invalid key or result");
+    }
+    if (!isFinal(result.getOutcome())) {
+      throw new IllegalArgumentException("Only solved or unsolvable results can be stored");
+    }
+    int[] moves = result.getPackedMoves();
+    ByteBuffer bytes = ByteBuffer.allocate(moves.length * 4);
+    bytes.asIntBuffer().put(moves);
+    long offset = this.heapEnd;
+    while (bytes.hasRemaining()) {
+      this.heap.write(bytes, offset + bytes.position());
+    }
+    this.heapEnd += moves.length * 4L;
+    long entry = offset << OFFSET_SHIFT | (long) moves.length << MOVES_SHIFT
+        | result.getOutcome().ordinal();
+
+    int slot = find(this.index, key);
+    if (slot >= 0) {
+      LONGS.setRelease(this.index, slot + 8, entry);
+      return;
+    }
+    if ((this.count + 1) * 4L > (this.mask + 1) * 3L) {
+      this.grow();
+    }
+    this.insert(this.index, this.mask, key, entry);
+    this.count++;
+    this.index.putInt(12, this.count);
+  }
+
+  // writes a new key and entry into the first free slot of its probe sequence, publishing the
+  // key only after the entry is in place
+  private void insert(MappedByteBuffer index, int mask, long key, long entry) {
+    int i = (int) mix(key) & mask;
+    while ((long) LONGS.getAcquire(index, slotOffset(i)) != 0) {
+      i = (i + 1) & mask;
+    }
+    LONGS.setRelease(index, slotOffset(i) + 8, entry);
+    LONGS.setRelease(index, slotOffset(i), key);
+  }
+
+  // rebuilds the index at twice its size in a new file, then swaps it in
+  private void grow() throws IOException {
+    int capacity = (this.mask + 1) * 2;
+    Path next = this.directory.resolve(INDEX_FILE + ".tmp");
+    MappedByteBuffer grown = createIndex(next, capacity);
+    for (int i = 0; i <= this.mask; i++) {
+      long key = (long) LONGS.getAcquire(this.index, slotOffset(i));
+      if (key != 0) {
+        this.insert(grown, capacity - 1, key,
+            (long) LONGS.getAcquire(this.index, slotOffset(i) + 8));
+      }
+    }
+    grown.putInt(12, this.count);
+    grown.force();
+    Files.move(next, this.directory.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+    this.index = grown;
+    this.mask = capacity - 1;
+  }
+
+  // returns the byte offset of the given slot in the index
+  private static int slotOffset(int slot) {
+    return HEADER_SIZE + slot * SLOT_SIZE;
+  }
+
+  // returns the byte offset of the slot holding the given key, or -1 if it is not in the index
+  private static int find(MappedByteBuffer index, long key) {
+    int mask = index.getInt(8) - 1;
+    int i = (int) mix(key) & mask;
+    while (true) {
+      long found = (long) LONGS.getAcquire(index, slotOffset(i));
+      if (found == key) {
+        return slotOffset(i);
+      }
+      if (found == 0) {
+        return -1;
+      }
+      i = (i + 1) & mask;
+    }
+  }
+
+  // returns true if a result is stored for the given key
+  public boolean contains(long key) {
+    return find(this.index, key) >= 0;
+  }
+
+  /**
+   * Returns the stored outcome of the deal with the given key.
+   *
+   * @param key the key of the deal, see {@link #keyOf}
+   * @return the outcome, or null if no result is stored for the deal
+   */
+  public SolverResult.Outcome outcomeOf(long key) {
+    MappedByteBuffer index = this.index;
+    int slot = find(index, key);
+    return slot < 0 ? null : OUTCOMES[(int) ((long) LONGS.getAcquire(index, slot + 8) & 0xf)];
+  }
+
+  /**
+   * Returns the length of the stored solution of the deal with the given key.
+   *
+   * @param key the key of the deal, see {@link #keyOf}
+   * @return the number of moves, 0 if the deal was not solved, or -1 if no result is stored
+   */
+  public int solutionLength(long key) {
+    MappedByteBuffer index = this.index;
+    int slot = find(index, key);
+    return slot < 0 ? -1 : movesOf((long) LONGS.getAcquire(index, slot + 8));
+  }
+
+  // returns the number of moves held by a packed entry
+  private static int movesOf(long entry) {
+    return (int) (entry >>> MOVES_SHIFT) & MAX_MOVES;
+  }
+
+  /**
+   * Reads the stored solution of the deal with the given key into the given buffer as packed
+   * moves, see {@link Move#pack}. The buffer this thread reads through is reused, so reading
+   * allocates nothing once it is large enough.
+   *
+   * @param key    the key of the deal, see {@link #keyOf}
+   * @param buffer the buffer to write the moves to
+   * @return the number of moves written, or -1 if no result is stored
+   * @throws IllegalArgumentException if the buffer is too small for the solution
+   * @throws IOException              if the heap cannot be read
+   */
+  public int readSolution(long key, int[] buffer) throws IOException {
+    MappedByteBuffer index = this.index;
+    int slot = find(index, key);
+    if (slot < 0) {
+      return -1;
+    }
+    long entry = (long) LONGS.getAcquire(index, slot + 8);
+    int numMoves = movesOf(entry);
+    if (buffer == null || buffer.length < numMoves) {
+      throw new IllegalArgumentException("Buffer is too small for the solution");
+    }
+    ByteBuffer bytes = this.readBuffers.get();
+    if (bytes.capacity() < numMoves * 4) {
+      bytes = ByteBuffer.allocateDirect(numMoves * 4);
+      this.readBuffers.set(bytes);
+    }
+    bytes.clear().limit(numMoves * 4);
+    long offset = entry >>> OFFSET_SHIFT;
+    while (bytes.hasRemaining()) {
+      if (this.heap.read(bytes, offset + bytes.position()) < 0) {
+        throw new IOException("Solution heap is truncated");
+      }
+    }
+    bytes.flip();
+    for (int i = 0; i < numMoves; i++) {
+      buffer[i] = bytes.getInt();
+    }
+    return numMoves;
+  }
+
+  /**
+   * Returns the stored solution of the deal with the given key.
+   *
+   * @param key the key of the deal, see {@link #keyOf}
+   * @return the moves in order, empty if the deal was not solved, or null if no result is stored
+   * @throws IOException if the heap cannot be read
+   */
+  public List<Move> solution(long key) throws IOException {
+    int length = this.solutionLength(key);
+    if (length < 0) {
+      return null;
+    }
+    int[] packed = new int[length];
+    int read = this.readSolution(key, packed);
+    List<Move> moves = new ArrayList<Move>(read);
+    for (int i = 0; i < read; i++) {
+      moves.add(Move.unpack(packed[i]));
+    }
+    return moves;
+  }
+
+  // returns the number of deals with a stored result
+  public synchronized int size() {
+    return this.count;
+  }
+
+  /**
+   * Solves every classic deal in the given range that has no stored result yet, spreading the
+   * deals over the threads of the common pool, and stores each result as it is found. A deal whose
+   * search runs out of budget is not stored, so a later call, perhaps with a larger budget, tries
+   * it again.
+   *
+   * @param firstDeal   the number of the first deal to solve
+   * @param lastDeal    the number of the last deal to solve
+   * @param numCascades the number of cascade piles
+   * @param numOpen     the number of open piles
+   * @param multiMove   true for the multi move rules
+   * @param solvers     makes a solver for each thread, since solvers need not be thread safe
+   * @return the number of deals stored
+   * @throws IllegalArgumentException if the range is empty or starts below 1, or there is no
+   *                                  solver
+   * @throws IllegalStateException    if a result cannot be stored
+   */
+  public int solveDeals(int firstDeal, int lastDeal, int numCascades, int numOpen,
+      boolean multiMove, Supplier<? extends FreecellSolver> solvers) {
+    if (firstDeal < 1 || lastDeal < firstDeal || solvers == null) {
+      throw new IllegalArgumentException("Invalid deal range or solver");
+    }
+    ThreadLocal<FreecellSolver> solver = ThreadLocal.withInitial(solvers);
+    AtomicInteger stored = new AtomicInteger();
+    IntStream.rangeClosed(firstDeal, lastDeal).parallel().forEach(deal -> {
+      List<Card> deck = DealGenerator.classicDeal(deal);
+      long key = keyOf(deck, numCascades, numOpen, multiMove);
+      if (this.contains(key)) {
+        return;
+      }
+      FreecellModel<Card> model = multiMove ? new MultiMoveModel() : new SimpleFreecellModel();
+      model.startGame(deck, numCascades, numOpen, false);
+      SolverResult result = solver.get().solve(model);
+      if (!isFinal(result.getOutcome())) {
+        return;
+      }
+      try {
+        this.put(key, result);
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not store the result of deal " + deal);
+      }
+      stored.incrementAndGet();
+    });
+    return stored.get();
+  }
+
+  // returns whether the given outcome answers the deal, rather than the search running out
+  private static boolean isFinal(SolverResult.Outcome outcome) {
+    return outcome == SolverResult.Outcome.SOLVED || outcome == SolverResult.Outcome.UNSOLVABLE;
+  }
+
+  /**
+   * Writes every change to disk and closes the store.
+   *
+   * @throws IOException if the files cannot be written
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    this.index.force();
+    this.heap.force(false);
+    this.heap.close();
+  }
+}
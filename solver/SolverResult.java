@@ -0,0 +1,90 @@
+package cs3500.freecell.solver;
+
+import cs3500.freecell.model.Move;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Represents the outcome of one search for a solution.
+ */
+public final class SolverResult {
+
+  /**
+   * Represents why a search stopped.
+   */
+  public enum Outcome {
+    /**
+     * A winning line was found.
+     */
+    SOLVED,
+    /**
+     * The search ran out of moves to try without winning, which proves that no winning line
+     * exists under the rules of the model.
+     */
+    UNSOLVABLE,
+    /**
+     * The search expanded as many positions as it was allowed to, which proves nothing.
+     */
+    NODE_BUDGET_EXCEEDED,
+    /**
+     * The search ran as long as it was allowed to, which proves nothing.
+     */
+    TIME_BUDGET_EXCEEDED
+  }
+
+  private final Outcome outcome;
+  private final int[] packedMoves;
+  private final List<Move> moves;
+  private final SolverStatistics statistics;
+
+  /**
+   * Constructs the outcome of a search.
+   *
+   * @param outcome    represents why the search stopped
+   * @param moves      represents the winning moves packed, which this result takes ownership of,
+   *                   empty unless the outcome is SOLVED
+   * @param statistics represents the work the search did
+   */
+  SolverResult(Outcome outcome, int[] moves, SolverStatistics statistics) {
+    this.outcome = outcome;
+    this.packedMoves = moves;
+    List<Move> unpacked = new ArrayList<Move>(moves.length);
+    for (int move : moves) {
+      unpacked.add(Move.unpack(move));
+    }
+    this.moves = Collections.unmodifiableList(unpacked);
+    this.statistics = statistics;
+  }
+
+  // returns why the search stopped
+  public Outcome getOutcome() {
+    return this.outcome;
+  }
+
+  // returns true if a winning sequence of moves was found
+  public boolean isSolved() {
+    return this.outcome == Outcome.SOLVED;
+  }
+
+  // returns the winning moves in order, or an empty list if none were found
+  public List<Move> getMoves() {
+    return this.moves;
+  }
+
+  // returns a copy of the winning moves packed, which unlike getMoves records how many cards each
+  // move carries, see Move#pack
+  public int[] getPackedMoves() {
+    return this.packedMoves.clone();
+  }
+
+  // returns the work the search did
+  public SolverStatistics getStatistics() {
+    return this.statistics;
+  }
+
+  @Override
+  public String toString() {
+    return this.outcome + " in " + this.moves.size() + " moves: " + this.statistics;
+  }
+}
@@ -0,0 +1,69 @@
+package cs3500.freecell.solver;
+
+/**
+ * Represents the work a solver did during one search.
+ */
+public final class SolverStatistics {
+
+  private final long nodesExpanded;
+  private final long nodesGenerated;
+  private final long elapsedNanos;
+  private final long peakMemoryBytes;
+  private final int peakFrontierSize;
+
+  /**
+   * Constructs the statistics of a search.
+   *
+   * @param nodesExpanded    represents the number of positions whose moves were generated
+   * @param nodesGenerated   represents the number of new positions added to the frontier
+   * @param elapsedNanos     represents the wall clock time the search took
+   * @param peakMemoryBytes  represents the most heap memory seen in use during the search
+   * @param peakFrontierSize represents the most positions waiting in the frontier at once
+   */
+  SolverStatistics(long nodesExpanded, long nodesGenerated, long elapsedNanos,
+      long peakMemoryBytes, int peakFrontierSize) {
+    this.nodesExpanded = nodesExpanded;
+    this.nodesGenerated = nodesGenerated;
+    this.elapsedNanos = elapsedNanos;
+    this.peakMemoryBytes = peakMemoryBytes;
+    this.peakFrontierSize = peakFrontierSize;
+  }
+
+  // returns the number of positions whose moves were generated
+  public long getNodesExpanded() {
+    return this.nodesExpanded;
+  }
+
+  // returns the number of new positions added to the frontier
+  public long getNodesGenerated() {
+    return this.nodesGenerated;
+  }
+
+  // returns the wall clock time the search took, in nanoseconds
+  public long getElapsedNanos() {
+    return this.elapsedNanos;
+  }
+
+  // returns the number of positions expanded per second of search
+  public double getNodesPerSecond() {
+    return this.elapsedNanos == 0 ? 0 : this.nodesExpanded * 1e9 / this.elapsedNanos;
+  }
+
+  // returns the most heap memory seen in use during the search, in bytes
+  public long getPeakMemoryBytes() {
+    return this.peakMemoryBytes;
+  }
+
+  // returns the most positions waiting in the frontier at once
+  public int getPeakFrontierSize() {
+    return this.peakFrontierSize;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d nodes expanded, %d generated in %.3f s (%.0f nodes/s), "
+            + "peak frontier %d, peak heap %d KiB", this.nodesExpanded, this.nodesGenerated,
+        this.elapsedNanos / 1e9, this.getNodesPerSecond(), this.peakFrontierSize,
+        this.peakMemoryBytes / 1024);
+  }
+}
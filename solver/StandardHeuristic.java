@@ -0,0 +1,85 @@
+package cs3500.freecell.solver;
+
+import cs3500.freecell.model.hw02.PackedBoard;
+
+/**
+ * The heuristics that come with the solver. They can be used alone or weighted together with
+ * {@link CompositeHeuristic}.
+ */
+public enum StandardHeuristic implements Heuristic {
+
+  /**
+   * Counts the cards that are not yet on a foundation pile.
+   */
+  CARDS_OUT_OF_PLACE {
+    @Override
+    public int estimate(PackedBoard board) {
+      int placed = 0;
+      for (int i = 0; i < PackedBoard.NUM_FOUNDATIONS; i++) {
+        placed += board.foundationSize(i);
+      }
+      return PackedBoard.NUM_FOUNDATIONS * PackedBoard.RANKS - placed;
+    }
+  },
+
+  /**
+   * Counts the open piles that hold a card.
+   */
+  OCCUPIED_OPEN_PILES {
+    @Override
+    public int estimate(PackedBoard board) {
+      int occupied = 0;
+      for (int i = 0; i < board.numOpen(); i++) {
+        if (board.openAt(i) != PackedBoard.EMPTY) {
+          occupied++;
+        }
+      }
+      return occupied;
+    }
+  },
+
+  /**
+   * Counts the cascade piles that are not empty.
+   */
+  OCCUPIED_CASCADES {
+    @Override
+    public int estimate(PackedBoard board) {
+      int occupied = 0;
+      for (int i = 0; i < board.numCascades(); i++) {
+        if (board.height(i) != 0) {
+          occupied++;
+        }
+      }
+      return occupied;
+    }
+  },
+
+  /**
+   * Counts the cards that lie above the next card each foundation pile needs.
+   */
+  BLOCKING_CARDS {
+    @Override
+    public int estimate(PackedBoard board) {
+      // four bits per suit hold the value of the next card of that suit to go to a foundation
+      // pile, starting at 1, so that nothing is allocated for each position searched
+      int next = 0x1111;
+      for (int i = 0; i < PackedBoard.NUM_FOUNDATIONS; i++) {
+        int top = board.foundationTop(i);
+        if (top != PackedBoard.EMPTY) {
+          next += PackedBoard.valueOf(top) << (4 * PackedBoard.suitOf(top));
+        }
+      }
+      int blocking = 0;
+      for (int i = 0; i < board.numCascades(); i++) {
+        int height = board.height(i);
+        for (int k = 0; k < height; k++) {
+          int card = board.cascadeAt(i, k);
+          if (PackedBoard.valueOf(card) == (next >>> (4 * PackedBoard.suitOf(card)) & 0xf)) {
+            blocking += height - k - 1;
+          }
+        }
+      }
+      return blocking;
+    }
+  }
+}
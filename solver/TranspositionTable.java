@@ -0,0 +1,114 @@
+package cs3500.freecell.solver;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size table from 64-bit position hashes to the best known depth and bound of each
+ * position, safe to share between threads without locks. Entries are grouped in buckets of two.
+ * The first slot of a bucket keeps the entry with the greatest depth and the second always takes
+ * the newest entry. A full table forgets entries, so a search that uses it as its set of seen
+ * positions may search a position again, but never skips one it has not seen.
+ *
+ * <p>Every slot stores the hash exclusive-ored with its data next to the data itself. A reader
+ * that sees half of a concurrent write finds that the two no longer match the hash it asked for
+ * and treats the slot as a miss, so no entry can be read torn.
+ */
+public final class TranspositionTable {
+
+  /**
+   * Represents how the stored bound relates to the true value of a position.
+   */
+  public enum Bound {
+    EXACT, LOWER, UPPER
+  }
+
+  /**
+   * The value {@link #probe(long)} returns for a position that is not in the table.
+   */
+  public static final long MISS = 0;
+
+  private static final Bound[] BOUNDS = Bound.values();
+  private static final int DEPTH_SHIFT = 32;
+  private static final int BOUND_SHIFT = 48;
+  private static final long OCCUPIED = 1L << 62;
+  private static final int MAX_DEPTH = 0xffff;
+
+  private final AtomicLongArray slots;
+  private final int bucketMask;
+
+  /**
+   * Constructs an empty table.
+   *
+   * @param entries represents the most entries the table may hold, rounded up to a power of two
+   * @throws IllegalArgumentException if entries is not between 2 and 2^28
+   */
+  public TranspositionTable(int entries) {
+    if (entries < 2 || entries > 1 << 28) {
+      throw new IllegalArgumentException("Table size must be between 2 and 2^28 entries");
+    }
+    int buckets = Integer.highestOneBit(entries - 1);
+    this.slots = new AtomicLongArray(buckets * 4);
+    this.bucketMask = buckets - 1;
+  }
+
+  /**
+   * Looks up a position.
+   *
+   * @param key represents the hash of the position
+   * @return the packed entry of the position, or {@link #MISS} if it is not in the table
+   */
+  public long probe(long key) {
+    int base = this.bucketOf(key);
+    for (int slot = base; slot < base + 4; slot += 2) {
+      long check = this.slots.get(slot);
+      long data = this.slots.get(slot + 1);
+      if (data != MISS && (check ^ data) == key) {
+        return data;
+      }
+    }
+    return MISS;
+  }
+
+  /**
+   * Records the depth and bound of a position, replacing an older entry if the bucket is full.
+   *
+   * @param key   represents the hash of the position
+   * @param depth represents the depth of the position, clamped to between 0 and 65535
+   * @param bound represents the bound of the position
+   * @param type  represents how the bound relates to the true value of the position
+   */
+  public void store(long key, int depth, int bound, Bound type) {
+    long data = OCCUPIED
+        | (long) type.ordinal() << BOUND_SHIFT
+        | (long) Math.max(0, Math.min(depth, MAX_DEPTH)) << DEPTH_SHIFT
+        | (bound & 0xffffffffL);
+    int base = this.bucketOf(key);
+    long first = this.slots.get(base + 1);
+    int slot = base + 2;
+    if (first == MISS || (this.slots.get(base) ^ first) == key || depth >= depthOf(first)) {
+      slot = base;
+    }
+    this.slots.set(slot + 1, data);
+    this.slots.set(slot, key ^ data);
+  }
+
+  // returns the depth stored in a packed entry
+  public static int depthOf(long entry) {
+    return (int) (entry >>> DEPTH_SHIFT) & MAX_DEPTH;
+  }
+
+  // returns the bound stored in a packed entry
+  public static int boundOf(long entry) {
+    return (int) entry;
+  }
+
+  // returns the kind of bound stored in a packed entry
+  public static Bound typeOf(long entry) {
+    return BOUNDS[(int) (entry >>> BOUND_SHIFT) & 3];
+  }
+
+  // returns the index of the first slot of the bucket the given hash belongs to
+  private int bucketOf(long key) {
+    return ((int) (key ^ (key >>> 32)) & this.bucketMask) * 4;
+  }
+}
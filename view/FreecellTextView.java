@@ -1,18 +1,56 @@
 package cs3500.freecell.view;
 
+import cs3500.freecell.metrics.FreecellMetrics;
+import cs3500.freecell.metrics.Latency;
+import cs3500.freecell.metrics.RenderEvent;
 import cs3500.freecell.model.FreecellModel;
+import cs3500.freecell.model.FreecellModelListener;
+import cs3500.freecell.model.FreecellModelState;
+import cs3500.freecell.model.PileType;
+import cs3500.freecell.model.hw02.ConcurrentFreecellModel;
+import cs3500.freecell.model.hw02.PositionSnapshot;
 import java.io.IOException;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * Represents information from a freecell game through text, including displaying the
  * game status and messages to the user.
+ *
+ * <p>The view keeps the rendered line of every pile, and only reads and renders a line again when
+ * its pile has changed since the last frame. Changes are learned from a listener on the model,
+ * which gives every pile a version that grows each time the pile changes. The listener is shared
+ * by every view of the same model, so views that are made and thrown away do not each leave one
+ * behind, and like the model it is meant to be used on the thread that plays the game.
+ *
+ * <p>A view of a {@link ConcurrentFreecellModel} may instead be used on a thread of its own, such
+ * as a spectator's. Each frame is rendered from one {@link PositionSnapshot}, which carries the
+ * versions of its piles, so the frame shows one position and needs no listener.
  */
 
 public class FreecellTextView implements FreecellView {
 
+  private static final int NUM_FOUNDATIONS = 4;
+  // the pile versions of every model a view was made for, dropped once the model is collected
+  private static final Map<FreecellModel<?>, PileVersions> VERSIONS =
+      new WeakHashMap<FreecellModel<?>, PileVersions>();
+
   private final FreecellModel<?> model;
   // INVARIANT: model is non null
   private final Appendable ap;
+  private final StringBuilder buffer;
+  private final PileVersions versions;
+  // INVARIANT: versions is registered with model, or is null if model is concurrent
+  private FreecellModelState<?> state;
+  private PositionSnapshot snapshot;
+  // INVARIANT: while a frame is rendered, state is what it is read from, which is snapshot if
+  // model is concurrent and model otherwise
+  private String[] lines;
+  // INVARIANT: lines holds the foundation piles, then the open piles, then the cascade piles
+  private long[] rendered;
+  // INVARIANT: rendered[i] is the version of the pile lines[i] was rendered at
+  private long renderedGame;
+  private int numOpen;
 
   /**
    * Represents a view of a freecell game through text.
@@ -28,6 +66,26 @@ public class FreecellTextView implements FreecellView {
     }
     this.model = model;
     this.ap = ap;
+    this.buffer = new StringBuilder();
+    // a concurrent model publishes the versions of its piles with each snapshot
+    this.versions = model instanceof ConcurrentFreecellModel ? null : versionsOf(model);
+  }
+
+  // returns the pile versions of the given model, registering a listener for them the first time
+  private static PileVersions versionsOf(FreecellModel<?> model) {
+    synchronized (VERSIONS) {
+      PileVersions versions = VERSIONS.get(model);
+      if (versions == null) {
+        versions = new PileVersions();
+        if (model.getNumCascadePiles() != -1) {
+          // sizes the versions for a game started before the first view was made
+          versions.gameStarted(model.getNumCascadePiles(), model.getNumOpenPiles());
+        }
+        model.addListener(versions);
+        VERSIONS.put(model, versions);
+      }
+      return versions;
+    }
   }
 
   /**
@@ -36,79 +94,122 @@ public class FreecellTextView implements FreecellView {
    * @param model represents the model that the game is run through
    */
   public FreecellTextView(FreecellModel<?> model) {
-    if (model == null) {
-      throw new IllegalArgumentException("Model cannot be null");
+    this(model, null);
+  }
+
+  // brings the line of every pile that changed since the last frame up to date with the model,
+  // and returns false if the game has not started
+  private boolean refresh() {
+    if (this.versions == null) {
+      this.snapshot = ((ConcurrentFreecellModel) this.model).snapshot();
+      this.state = this.snapshot;
+    } else {
+      this.state = this.model;
+    }
+    int numCascades = this.state.getNumCascadePiles();
+    if (numCascades == -1) {
+      return false;
+    }
+    int numOpen = this.state.getNumOpenPiles();
+    int numLines = NUM_FOUNDATIONS + numOpen + numCascades;
+    long game = this.versions == null ? this.snapshot.getGameVersion() : this.versions.game;
+    boolean all = this.renderedGame != game;
+    if (this.lines == null || this.lines.length != numLines || this.numOpen != numOpen) {
+      this.lines = new String[numLines];
+      this.rendered = new long[numLines];
+      this.numOpen = numOpen;
+      all = true;
+    }
+    this.renderedGame = game;
+    for (int i = 0; i < NUM_FOUNDATIONS; i++) {
+      this.refreshLine(i, PileType.FOUNDATION, i, 'F', all);
     }
+    for (int i = 0; i < numOpen; i++) {
+      this.refreshLine(NUM_FOUNDATIONS + i, PileType.OPEN, i, 'O', all);
+    }
+    for (int i = 0; i < numCascades; i++) {
+      this.refreshLine(NUM_FOUNDATIONS + numOpen + i, PileType.CASCADE, i, 'C', all);
+    }
+    return true;
+  }
 
-    this.model = model;
-    this.ap = null;
+  // renders the given line again if its pile has changed since it was rendered, or if told to
+  private void refreshLine(int line, PileType type, int pile, char label, boolean all) {
+    long version = this.versions == null ? this.snapshot.getPileVersion(type, pile)
+        : this.versions.versionOf(type, pile);
+    if (!all && version == this.rendered[line]) {
+      return;
+    }
+    this.rendered[line] = version;
+    int size = this.sizeOf(type, pile);
+    this.buffer.setLength(0);
+    this.buffer.append(label).append(pile + 1).append(':');
+    for (int k = 0; k < size; k++) {
+      this.buffer.append(k == 0 ? " " : ", ").append(this.cardAt(type, pile, k));
+    }
+    this.lines[line] = this.buffer.toString();
+  }
+
+  // returns the number of cards in the given pile
+  private int sizeOf(PileType type, int pile) {
+    switch (type) {
+      case FOUNDATION:
+        return this.state.getNumCardsInFoundationPile(pile);
+      case OPEN:
+        return this.state.getNumCardsInOpenPile(pile);
+      default:
+        return this.state.getNumCardsInCascadePile(pile);
+    }
+  }
+
+  // returns the card at the given index of the given pile
+  private Object cardAt(PileType type, int pile, int index) {
+    switch (type) {
+      case FOUNDATION:
+        return this.state.getFoundationCardAt(pile, index);
+      case OPEN:
+        return this.state.getOpenCardAt(pile);
+      default:
+        return this.state.getCascadeCardAt(pile, index);
+    }
   }
 
-  
   @Override
   public String toString() {
-    if (this.model.getNumCascadePiles() == -1) {
+    if (!this.refresh()) {
       return "";
     }
-    String gameDisplay = "";
-    for (int i = 0; i < 4; ++i) {
+    this.buffer.setLength(0);
+    for (int i = 0; i < this.lines.length; i++) {
       if (i != 0) {
-        gameDisplay += "\n";
-      }
-      gameDisplay += "F" + (i + 1) + ":";
-      if (model.getNumCardsInFoundationPile(i) != 0) {
-        gameDisplay += " ";
-      }
-      for (int k = 0; k < model.getNumCardsInFoundationPile(i); ++k) {
-        gameDisplay += model.getFoundationCardAt(i, k).toString();
-        if (k < model.getNumCardsInCascadePile(i) - 1) {
-          gameDisplay += ", ";
-        }
+        this.buffer.append('\n');
       }
+      this.buffer.append(this.lines[i]);
     }
-    gameDisplay += "\n";
-    for (int i = 0; i < model.getNumOpenPiles(); ++i) {
-      if (i != 0) {
-        gameDisplay += "\n";
-      }
-      gameDisplay += "O" + (i + 1) + ":";
-      if (model.getNumCardsInOpenPile(i) != 0) {
-        gameDisplay += " ";
-      }
-      for (int k = 0; k < model.getNumCardsInOpenPile(i); ++k) {
-        gameDisplay += model.getOpenCardAt(i).toString();
-        if (k < model.getNumCardsInOpenPile(i) - 1) {
-          gameDisplay += ", ";
-        }
-      }
-    }
-    gameDisplay += "\n";
-    for (int i = 0; i < model.getNumCascadePiles(); ++i) {
-      if (i != 0) {
-        gameDisplay += "\n";
-      }
-      gameDisplay += "C" + (i + 1) + ":";
-      if (model.getNumCardsInCascadePile(i) != 0) {
-        gameDisplay += " ";
-      }
-      for (int k = 0; k < model.getNumCardsInCascadePile(i); ++k) {
-        gameDisplay += model.getCascadeCardAt(i, k).toString();
-        if (k < model.getNumCardsInCascadePile(i) - 1) {
-          gameDisplay += ", ";
-        }
-      }
-    }
-    return gameDisplay;
+    return this.buffer.toString();
   }
 
+  // writes each line of the board straight to the appendable, followed by a newline
   @Override
   public void renderBoard() throws IOException {
+    long started = FreecellMetrics.startTimer();
+    RenderEvent event = new RenderEvent();
+    event.begin();
+    int numLines = 0;
     try {
-      ap.append(this.toString());
-      ap.append("\n");
+      if (this.refresh()) {
+        numLines = this.lines.length;
+        for (String line : this.lines) {
+          ap.append(line).append('\n');
+        }
+      } else {
+        ap.append('\n');
+      }
     } catch (IOException e) {
       throw new IOException("Illegal input received");
     }
+    FreecellMetrics.record(Latency.RENDER, started);
+    event.finish(numLines);
   }
 
   @Override
@@ -119,5 +220,72 @@ public class FreecellTextView implements FreecellView {
       throw new IOException("Couldn't write to appendable");
     }
   }
-}
 
+  /**
+   * Gives every pile of a model a version that grows each time cards are added to or removed
+   * from it, and the game a version that grows each time a game is started or restored, when
+   * every pile may have changed. Versions are never reused, so a view that rendered a pile at one
+   * version knows the pile is unchanged for as long as the version is the same.
+   */
+  private static final class PileVersions implements FreecellModelListener {
+
+    private long next;
+    private long game;
+    private final long[] foundations;
+    private long[] open;
+    private long[] cascades;
+
+    private PileVersions() {
+      this.next = 0;
+      this.game = 0;
+      this.foundations = new long[NUM_FOUNDATIONS];
+      this.open = new long[0];
+      this.cascades = new long[0];
+    }
+
+    // resizes the versions to the new game, and gives the game a new version
+    @Override
+    public void gameStarted(int numCascadePiles, int numOpenPiles) {
+      if (this.cascades.length != numCascadePiles) {
+        this.cascades = new long[numCascadePiles];
+      }
+      if (this.open.length != numOpenPiles) {
+        this.open = new long[numOpenPiles];
+      }
+      this.game = ++this.next;
+    }
+
+    // gives the pile a new version
+    @Override
+    public void pileChanged(PileType type, int pileNumber, int delta) {
+      this.versionsOf(type)[pileNumber] = ++this.next;
+    }
+
+    // does nothing, since every pile the move changed has already been told
+    @Override
+    public void moveCompleted(int move) {
+    }
+
+    // does nothing, since every pile the undo changed has already been told
+    @Override
+    public void moveUndone(int move) {
+    }
+
+    // returns the version of the given pile
+    private long versionOf(PileType type, int pileNumber) {
+      return this.versionsOf(type)[pileNumber];
+    }
+
+    // returns the versions of the piles of the given type
+    private long[] versionsOf(PileType type) {
+      switch (type) {
+        case CASCADE:
+          return this.cascades;
+        case OPEN:
+          return this.open;
+        default:
+          return this.foundations;
+      }
+    }
+  }
+}